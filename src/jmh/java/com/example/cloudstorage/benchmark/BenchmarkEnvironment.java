@@ -0,0 +1,71 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.cloudstorage.CloudStorageApplication;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.repository.UserRepository;
+import com.example.cloudstorage.services.StorageService;
+
+public final class BenchmarkEnvironment implements AutoCloseable {
+    private final Path directory;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(Path directory, ConfigurableApplicationContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    public static BenchmarkEnvironment start(String... properties) throws IOException {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Path directory = Files.createTempDirectory("cloud-storage-benchmark-");
+        List<String> arguments = new ArrayList<>(List.of(
+                "server.port=0",
+                "logging.level.root=WARN",
+                "logging.level.com.example=WARN",
+                "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "storage.location=" + directory.resolve("root"),
+                "storage.upload-location=" + directory.resolve("uploads"),
+                "storage.blob-location=" + directory.resolve("blobs"),
+                "storage.job-location=" + directory.resolve("jobs")));
+        arguments.addAll(List.of(properties));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CloudStorageApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(arguments.stream().map(argument -> "--" + argument).toArray(String[]::new));
+        return new BenchmarkEnvironment(directory, context);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return this.context.getBean(type);
+    }
+
+    public Path getRoot() {
+        return this.directory.resolve("root");
+    }
+
+    public void createUser(String username, String password) {
+        String encoded = this.getBean(PasswordEncoder.class).encode(password);
+        this.getBean(UserRepository.class).save(new User(username, username + "@example.com", encoded));
+        this.getBean(StorageService.class).createDirectory(Paths.get(""), username);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.context.close();
+        FileSystemUtils.deleteRecursively(this.directory);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.cloudstorage.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import org.apache.tika.Tika;
+
+import com.example.cloudstorage.properties.StorageProperties;
+import com.example.cloudstorage.services.ContentTypeService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ContentTypeBenchmark {
+    @Param({"report.pdf", "photo.JPG", "archive.tar.gz"})
+    public String filename;
+
+    private ContentTypeService contentTypeService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.contentTypeService = new ContentTypeService(new StorageProperties());
+    }
+
+    @Benchmark
+    public String tikaPerRequest() {
+        return new Tika().detect(this.filename);
+    }
+
+    @Benchmark
+    public String cachedRegistry() {
+        return this.contentTypeService.detect(this.filename);
+    }
+}
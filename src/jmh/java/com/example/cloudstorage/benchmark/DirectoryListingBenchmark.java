@@ -0,0 +1,73 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.example.cloudstorage.models.FileMetadata;
+import com.example.cloudstorage.payload.response.FileResponse;
+import com.example.cloudstorage.services.FileIndexService;
+import com.example.cloudstorage.services.StorageService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DirectoryListingBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int entries;
+
+    @Param({"type", "name", "size"})
+    private String sortKey;
+
+    private BenchmarkEnvironment environment;
+    private StorageService storageService;
+    private Path directory;
+    private Sort sort;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.environment = BenchmarkEnvironment.start();
+        this.environment.createUser(Fixtures.USERNAME, Fixtures.PASSWORD);
+        this.storageService = this.environment.getBean(StorageService.class);
+
+        Path listing = this.environment.getRoot().resolve(Fixtures.USERNAME).resolve("listing");
+        Fixtures.createFiles(listing, this.entries, 64, Fixtures.SEED);
+        this.environment.getBean(FileIndexService.class).indexTree(listing);
+
+        this.directory = Paths.get(Fixtures.USERNAME, "listing");
+        this.sort = FileIndexService.buildSort(this.sortKey, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.environment.close();
+    }
+
+    @Benchmark
+    public List<FileMetadata> loadDirectory() {
+        return this.storageService.loadDirectory(this.directory, this.sort);
+    }
+
+    @Benchmark
+    public Window<FileMetadata> loadDirectoryPage() {
+        return this.storageService.loadDirectory(this.directory, this.sort, ScrollPosition.keyset(), 100);
+    }
+
+    @Benchmark
+    public List<FileResponse> buildFileResponses() {
+        return this.storageService.loadDirectory(this.directory, this.sort).stream()
+                .map(FileResponse::build)
+                .toList();
+    }
+}
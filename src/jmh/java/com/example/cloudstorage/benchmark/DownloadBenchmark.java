@@ -0,0 +1,129 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serial;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.openjdk.jmh.annotations.*;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.example.cloudstorage.metrics.StorageMetrics;
+import com.example.cloudstorage.properties.StorageProperties;
+import com.example.cloudstorage.transfer.FileDownloadHandler;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DownloadBenchmark {
+    @Param({"1048576", "67108864"})
+    private int fileSize;
+
+    private Path directory;
+    private Path file;
+    private Tomcat tomcat;
+    private HttpClient client;
+    private URI baseUri;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, LifecycleException {
+        this.directory = Files.createTempDirectory("cloud-storage-benchmark-");
+        this.file = Files.write(this.directory.resolve("download.bin"), Fixtures.payload(this.fileSize, Fixtures.SEED));
+
+        this.tomcat = new Tomcat();
+        this.tomcat.setBaseDir(this.directory.resolve("tomcat").toString());
+        this.tomcat.setPort(0);
+        Context context = this.tomcat.addContext("", this.directory.toString());
+        this.addServlet(context, "sendfile", new HandlerServlet(this.file, createHandler(true)));
+        this.addServlet(context, "buffered-copy", new HandlerServlet(this.file, createHandler(false)));
+        this.tomcat.start();
+
+        this.client = HttpClient.newHttpClient();
+        this.baseUri = URI.create("http://localhost:" + this.tomcat.getConnector().getLocalPort() + "/");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, LifecycleException {
+        this.tomcat.stop();
+        this.tomcat.destroy();
+        FileSystemUtils.deleteRecursively(this.directory);
+    }
+
+    @Benchmark
+    public long sendfile() throws IOException, InterruptedException {
+        return this.get("sendfile");
+    }
+
+    @Benchmark
+    public long bufferedCopy() throws IOException, InterruptedException {
+        return this.get("buffered-copy");
+    }
+
+    private long get(String path) throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = this.client.send(
+                HttpRequest.newBuilder(this.baseUri.resolve(path)).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            long read = body.transferTo(OutputStream.nullOutputStream());
+            if (response.statusCode() != 200 || read != this.fileSize)
+                throw new IllegalStateException("Unexpected download of " + read + " bytes from /" + path);
+            return read;
+        }
+    }
+
+    private void addServlet(Context context, String name, HttpServlet servlet) {
+        Tomcat.addServlet(context, name, servlet);
+        context.addServletMappingDecoded("/" + name, name);
+    }
+
+    private static FileDownloadHandler createHandler(boolean sendfileEnabled) {
+        StorageProperties properties = new StorageProperties();
+        properties.setSendfileEnabled(sendfileEnabled);
+        return new FileDownloadHandler(properties, new StorageMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static final class HandlerServlet extends HttpServlet {
+        @Serial
+        private static final long serialVersionUID = 1;
+
+        private final transient Path file;
+        private final transient FileDownloadHandler handler;
+
+        private HandlerServlet(Path file, FileDownloadHandler handler) {
+            this.file = file;
+            this.handler = handler;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            ResponseEntity<StreamingResponseBody> entity = this.handler.download(this.file, request, new HttpHeaders());
+            response.setStatus(entity.getStatusCode().value());
+            entity.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            if (entity.getBody() != null)
+                entity.getBody().writeTo(response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import org.springframework.http.HttpStatus;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.exceptions.storage.StorageFileNotFoundException;
+import com.example.cloudstorage.models.APIError;
+import com.example.cloudstorage.services.StorageService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ErrorResponseBenchmark {
+    private static final HttpStatus STATUS = HttpStatus.NOT_FOUND;
+
+    private BenchmarkEnvironment environment;
+    private StorageService storageService;
+    private Path missing;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.environment = BenchmarkEnvironment.start();
+        this.environment.createUser(Fixtures.USERNAME, Fixtures.PASSWORD);
+        this.storageService = this.environment.getBean(StorageService.class);
+        this.missing = Paths.get(Fixtures.USERNAME, "missing.bin");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.environment.close();
+    }
+
+    @Benchmark
+    public APIError stackTraceResponse() {
+        StorageException ex = new StorageException("Could not find a file/directory");
+        return new APIError(STATUS.value(), STATUS.getReasonPhrase(), ex, "/api/storage/file/missing.bin", true);
+    }
+
+    @Benchmark
+    public APIError stacklessResponse() {
+        StorageException ex = new StorageFileNotFoundException();
+        return new APIError(STATUS.value(), STATUS.getReasonPhrase(), ex, "/api/storage/file/missing.bin", false);
+    }
+
+    @Benchmark
+    public APIError loadMissingFile() {
+        try {
+            this.storageService.loadFile(this.missing);
+            return null;
+        } catch (StorageFileNotFoundException ex) {
+            return new APIError(STATUS.value(), STATUS.getReasonPhrase(), ex, "/api/storage/file/missing.bin", false);
+        }
+    }
+
+    @Benchmark
+    public Optional<Path> findMissingFile() {
+        return this.storageService.findFile(this.missing);
+    }
+}
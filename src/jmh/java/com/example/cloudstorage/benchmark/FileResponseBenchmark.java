@@ -0,0 +1,53 @@
+package com.example.cloudstorage.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.cloudstorage.models.FileMetadata;
+import com.example.cloudstorage.payload.response.FileResponse;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FileResponseBenchmark {
+    @Param({"10", "1000", "100000"})
+    private int entries;
+
+    private List<FileMetadata> metadata;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(Fixtures.SEED);
+        this.metadata = new ArrayList<>(this.entries);
+        for (int i = 0; i < this.entries; i++) {
+            String name = String.format("file-%06d.bin", random.nextInt(this.entries * 10));
+            boolean directory = random.nextInt(10) == 0;
+            this.metadata.add(new FileMetadata("benchmark/" + name, "benchmark", name, directory,
+                    directory ? 0L : random.nextLong(1L << 32), random.nextLong(1L << 41)));
+        }
+    }
+
+    @Benchmark
+    public List<FileResponse> build() {
+        return this.metadata.stream()
+                .map(FileResponse::build)
+                .toList();
+    }
+
+    @Benchmark
+    public List<FileResponse> buildSorted() {
+        return this.metadata.stream()
+                .sorted(Comparator.comparing(FileMetadata::getDirectory).reversed()
+                        .thenComparing(FileMetadata::getName))
+                .map(FileResponse::build)
+                .toList();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+public final class Fixtures {
+    public static final String USERNAME = "benchmark";
+    public static final String PASSWORD = "benchmark";
+    public static final long SEED = 0x5eedL;
+
+    private Fixtures() {
+    }
+
+    public static byte[] payload(int size, long seed) {
+        byte[] bytes = new byte[size];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < size; i++)
+            bytes[i] = (byte) random.nextInt(256);
+        return bytes;
+    }
+
+    public static Path createFiles(Path directory, int count, int size, long seed) throws IOException {
+        Files.createDirectories(directory);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++)
+            Files.write(directory.resolve(String.format("file-%06d.bin", i)), payload(size, random.nextLong()));
+        return directory;
+    }
+
+    public static Path createTree(Path directory, int directories, int filesPerDirectory, int size, long seed)
+            throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < directories; i++)
+            createFiles(directory.resolve(String.format("dir-%04d", i)), filesPerDirectory, size, random.nextLong());
+        return directory;
+    }
+}
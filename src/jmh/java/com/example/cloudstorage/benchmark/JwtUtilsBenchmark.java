@@ -0,0 +1,77 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+
+import com.example.cloudstorage.jwt.JwtUtils;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtUtilsBenchmark {
+    private static final int TOKENS = 1024;
+
+    private JwtUtils cachedJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadAllProperties("application.properties");
+        this.cachedJwtUtils = createJwtUtils(properties, TOKENS);
+        this.uncachedJwtUtils = createJwtUtils(properties, 0);
+
+        this.tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++)
+            this.tokens[i] = this.cachedJwtUtils.generateTokenFromUsername("user-" + i);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return this.cachedJwtUtils.generateTokenFromUsername(Fixtures.USERNAME);
+    }
+
+    @Benchmark
+    public Optional<Claims> parseCachedToken() {
+        return this.cachedJwtUtils.parseJwtToken(this.nextToken());
+    }
+
+    @Benchmark
+    public Optional<Claims> parseUncachedToken() {
+        return this.uncachedJwtUtils.parseJwtToken(this.nextToken());
+    }
+
+    @Benchmark
+    public Optional<Claims> parseInvalidToken() {
+        return this.cachedJwtUtils.parseJwtToken(this.nextToken() + "x");
+    }
+
+    private String nextToken() {
+        this.next = (this.next + 1) % TOKENS;
+        return this.tokens[this.next];
+    }
+
+    private static JwtUtils createJwtUtils(Properties properties, int cacheSize) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret",
+                properties.getProperty("cloud-storage.app.jwt-secret"));
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs",
+                Integer.parseInt(properties.getProperty("cloud-storage.app.jwt-expiration-ms")));
+        ReflectionTestUtils.setField(jwtUtils, "jwtCacheSize", cacheSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.*;
+
+import org.springframework.http.ResponseEntity;
+
+import com.example.cloudstorage.controllers.AuthController;
+import com.example.cloudstorage.payload.request.LoginRequest;
+import com.example.cloudstorage.payload.response.JwtResponse;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoginBenchmark {
+    private static final int USERS = 16;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({"bcrypt"})
+        private String passwordEncoder;
+
+        private final AtomicInteger threads = new AtomicInteger();
+        private BenchmarkEnvironment environment;
+        private AuthController authController;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.environment = BenchmarkEnvironment.start(
+                    "cloud-storage.app.password-encoder=" + this.passwordEncoder,
+                    "cloud-storage.app.bcrypt-strength=4");
+            for (int i = 0; i < USERS; i++)
+                this.environment.createUser(Fixtures.USERNAME + i, Fixtures.PASSWORD);
+            this.authController = this.environment.getBean(AuthController.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            this.environment.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private LoginRequest loginRequest;
+
+        @Setup(Level.Trial)
+        public void setup(Server server) {
+            int user = server.threads.getAndIncrement() % USERS;
+            this.loginRequest = new LoginRequest(Fixtures.USERNAME + user, Fixtures.PASSWORD);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<JwtResponse> login(Server server, Client client) {
+        return server.authController.authenticateUser(client.loginRequest).join();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.cloudstorage.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.example.cloudstorage.services.FileIndexService;
+import com.example.cloudstorage.services.StorageService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StorageOperationBenchmark {
+    @State(Scope.Benchmark)
+    public static class Upload {
+        @Param({"65536", "16777216"})
+        private int fileSize;
+
+        private BenchmarkEnvironment environment;
+        private StorageService storageService;
+        private byte[] payload;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.environment = BenchmarkEnvironment.start();
+            this.environment.createUser(Fixtures.USERNAME, Fixtures.PASSWORD);
+            this.storageService = this.environment.getBean(StorageService.class);
+            this.payload = Fixtures.payload(this.fileSize, Fixtures.SEED);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            this.environment.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Zip {
+        @Param({"100", "1000"})
+        private int files;
+
+        private BenchmarkEnvironment environment;
+        private StorageService storageService;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.environment = BenchmarkEnvironment.start();
+            this.environment.createUser(Fixtures.USERNAME, Fixtures.PASSWORD);
+            this.storageService = this.environment.getBean(StorageService.class);
+
+            Path archive = this.environment.getRoot().resolve(Fixtures.USERNAME).resolve("archive");
+            Fixtures.createTree(archive, 10, this.files / 10, 16 * 1024, Fixtures.SEED);
+            this.environment.getBean(FileIndexService.class).indexTree(archive);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            this.environment.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Delete {
+        @Param({"100", "1000"})
+        private int files;
+
+        private BenchmarkEnvironment environment;
+        private StorageService storageService;
+        private FileIndexService fileIndexService;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            this.environment = BenchmarkEnvironment.start();
+            this.environment.createUser(Fixtures.USERNAME, Fixtures.PASSWORD);
+            this.storageService = this.environment.getBean(StorageService.class);
+            this.fileIndexService = this.environment.getBean(FileIndexService.class);
+        }
+
+        @Setup(Level.Invocation)
+        public void createTree() throws IOException {
+            Path trash = this.environment.getRoot().resolve(Fixtures.USERNAME).resolve("trash");
+            Fixtures.createTree(trash, 10, this.files / 10, 1024, Fixtures.SEED);
+            this.fileIndexService.indexTree(trash);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            this.environment.close();
+        }
+    }
+
+    @Benchmark
+    public Path uploadFile(Upload state) {
+        return state.storageService.uploadFile(Paths.get(Fixtures.USERNAME), "upload.bin",
+                new ByteArrayInputStream(state.payload));
+    }
+
+    @Benchmark
+    public void zipDirectory(Zip state) {
+        state.storageService.zipDirectory(Paths.get(Fixtures.USERNAME, "archive"), OutputStream.nullOutputStream());
+    }
+
+    @Benchmark
+    public void deleteDirectory(Delete state) {
+        state.storageService.deleteFile(Paths.get(Fixtures.USERNAME, "trash"));
+    }
+}
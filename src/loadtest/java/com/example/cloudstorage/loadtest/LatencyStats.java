@@ -0,0 +1,49 @@
+package com.example.cloudstorage.loadtest;
+
+import java.util.Arrays;
+
+public class LatencyStats {
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+    private long bytes;
+
+    public void record(long nanos, long transferred) {
+        if (this.count == this.latencies.length)
+            this.latencies = Arrays.copyOf(this.latencies, this.count * 2);
+        this.latencies[this.count++] = nanos;
+        this.bytes += transferred;
+    }
+
+    public void recordError() {
+        this.errors++;
+    }
+
+    public void merge(LatencyStats other) {
+        for (int i = 0; i < other.count; i++)
+            this.record(other.latencies[i], 0);
+        this.errors += other.errors;
+        this.bytes += other.bytes;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public long getErrors() {
+        return this.errors;
+    }
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    public long percentile(double percentile) {
+        if (this.count == 0)
+            return 0;
+        long[] sorted = Arrays.copyOf(this.latencies, this.count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * this.count) - 1;
+        return sorted[Math.max(0, Math.min(this.count - 1, rank))];
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.cloudstorage.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class LoadTest {
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String runId = Long.toString(System.currentTimeMillis() % 60_466_176L, 36);
+    private final byte[] payload;
+    private final Operation[] operations;
+
+    public LoadTest(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+
+        this.payload = new byte[(int) options.fileSize().toBytes()];
+        new SplittableRandom(options.seed()).nextBytes(this.payload);
+
+        List<Operation> operations = new ArrayList<>();
+        options.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++)
+                operations.add(operation);
+        });
+        this.operations = operations.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        LocalServer server = options.target() == null ? LocalServer.start() : null;
+        try {
+            new LoadTest(options, server != null ? server.getBaseUrl() : options.target()).run();
+        } finally {
+            if (server != null)
+                server.close();
+        }
+    }
+
+    public void run() throws Exception {
+        System.out.printf("Load test against %s: %d users, %s warmup, %s measured, %s files, mix %s%n",
+                this.baseUrl, this.options.users(), this.options.warmup(), this.options.duration(),
+                this.options.fileSize(), this.options.mix());
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.options.users());
+        try {
+            List<Future<StorageClient>> clients = new ArrayList<>();
+            for (int user = 0; user < this.options.users(); user++) {
+                int index = user;
+                clients.add(executor.submit(() -> this.prepare(index)));
+            }
+
+            long warmupEnd = System.nanoTime() + this.options.warmup().toNanos();
+            long end = warmupEnd + this.options.duration().toNanos();
+            List<Future<Map<Operation, LatencyStats>>> workers = new ArrayList<>();
+            for (int user = 0; user < this.options.users(); user++) {
+                StorageClient client = clients.get(user).get();
+                SplittableRandom random = new SplittableRandom(this.options.seed() + user);
+                workers.add(executor.submit(() -> this.work(client, random, warmupEnd, end)));
+            }
+
+            Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, LatencyStats>> worker : workers)
+                worker.get().forEach((operation, result) ->
+                        stats.computeIfAbsent(operation, key -> new LatencyStats()).merge(result));
+            this.report(stats);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private StorageClient prepare(int user) throws IOException, InterruptedException {
+        StorageClient client = new StorageClient(this.httpClient, this.baseUrl,
+                "load" + this.runId + "-" + user, "load-test-password");
+        client.signup();
+        client.login();
+        for (int file = 0; file < this.options.files(); file++)
+            client.upload(seedName(file), this.payload);
+        return client;
+    }
+
+    private Map<Operation, LatencyStats> work(StorageClient client, SplittableRandom random,
+                                              long warmupEnd, long end) throws InterruptedException {
+        Map<Operation, LatencyStats> stats = new EnumMap<>(Operation.class);
+        int uploads = 0;
+        for (long start = System.nanoTime(); start < end; start = System.nanoTime()) {
+            Operation operation = this.operations[random.nextInt(this.operations.length)];
+            LatencyStats result = stats.computeIfAbsent(operation, key -> new LatencyStats());
+            try {
+                long bytes = switch (operation) {
+                    case LOGIN -> client.login();
+                    case REFRESH -> client.refresh();
+                    case LIST -> client.list();
+                    case UPLOAD -> client.upload("upload-" + (uploads++ % this.options.files()) + ".bin", this.payload);
+                    case DOWNLOAD -> client.download(seedName(random.nextInt(this.options.files())));
+                };
+                if (start >= warmupEnd)
+                    result.record(System.nanoTime() - start, bytes);
+            } catch (IOException e) {
+                if (start >= warmupEnd)
+                    result.recordError();
+            }
+        }
+        return stats;
+    }
+
+    private void report(Map<Operation, LatencyStats> stats) {
+        double seconds = this.options.duration().toNanos() / 1e9;
+        String format = "%-10s %10s %8s %10s %10s %10s %10s %10s%n";
+        System.out.printf(format, "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms", "MB/s");
+
+        LatencyStats total = new LatencyStats();
+        stats.forEach((operation, result) -> {
+            this.printRow(format, operation.name().toLowerCase(), result, seconds);
+            total.merge(result);
+        });
+        this.printRow(format, "total", total, seconds);
+    }
+
+    private void printRow(String format, String name, LatencyStats result, double seconds) {
+        System.out.printf(format, name, result.getCount(), result.getErrors(),
+                String.format("%.1f", result.getCount() / seconds),
+                String.format("%.2f", result.percentile(50) / 1e6),
+                String.format("%.2f", result.percentile(99) / 1e6),
+                String.format("%.2f", result.percentile(100) / 1e6),
+                String.format("%.2f", result.getBytes() / seconds / 1e6));
+    }
+
+    private static String seedName(int file) {
+        return "seed-" + file + ".bin";
+    }
+}
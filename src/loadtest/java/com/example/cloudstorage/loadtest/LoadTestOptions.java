@@ -0,0 +1,51 @@
+package com.example.cloudstorage.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+public record LoadTestOptions(String target,
+                              int users,
+                              Duration warmup,
+                              Duration duration,
+                              DataSize fileSize,
+                              int files,
+                              Map<Operation, Integer> mix,
+                              long seed) {
+    private static final String DEFAULT_MIX = "login:1,refresh:2,list:8,upload:2,download:6";
+
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        return new LoadTestOptions(
+                options.get("target"),
+                Integer.parseInt(options.getOrDefault("users", "8")),
+                DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s")),
+                DurationStyle.detectAndParse(options.getOrDefault("duration", "60s")),
+                DataSize.parse(options.getOrDefault("file-size", "1MB")),
+                Integer.parseInt(options.getOrDefault("files", "8")),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                Long.parseLong(options.getOrDefault("seed", "24301"))
+        );
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0)
+            throw new IllegalArgumentException("Workload mix must have a positive weight: " + mix);
+        return weights;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.cloudstorage.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.example.cloudstorage.CloudStorageApplication;
+
+public final class LocalServer implements AutoCloseable {
+    private final Path directory;
+    private final ConfigurableApplicationContext context;
+
+    private LocalServer(Path directory, ConfigurableApplicationContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    public static LocalServer start() throws IOException {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        Path directory = Files.createTempDirectory("cloud-storage-load-test-");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CloudStorageApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.example=WARN",
+                        "--spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID()
+                                + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--storage.location=" + directory.resolve("root"),
+                        "--storage.upload-location=" + directory.resolve("uploads"),
+                        "--storage.blob-location=" + directory.resolve("blobs"),
+                        "--storage.job-location=" + directory.resolve("jobs"));
+        return new LocalServer(directory, context);
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + this.context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.context.close();
+        FileSystemUtils.deleteRecursively(this.directory);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.cloudstorage.loadtest;
+
+public enum Operation {
+    LOGIN,
+    REFRESH,
+    LIST,
+    UPLOAD,
+    DOWNLOAD
+}
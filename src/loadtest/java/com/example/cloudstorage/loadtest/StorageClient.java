@@ -0,0 +1,112 @@
+package com.example.cloudstorage.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class StorageClient {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String username;
+    private final String password;
+    private String accessToken;
+    private String refreshToken;
+
+    public StorageClient(HttpClient httpClient, String baseUrl, String username, String password) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.username = username;
+        this.password = password;
+    }
+
+    public long signup() throws IOException, InterruptedException {
+        return this.postJson("/api/auth/signup", Map.of(
+                "username", this.username,
+                "email", this.username + "@example.com",
+                "password", this.password)).length;
+    }
+
+    public long login() throws IOException, InterruptedException {
+        byte[] body = this.postJson("/api/auth/login", Map.of(
+                "username", this.username,
+                "password", this.password));
+        JsonNode response = objectMapper.readTree(body);
+        this.accessToken = response.get("accessToken").asText();
+        this.refreshToken = response.get("refreshToken").asText();
+        return body.length;
+    }
+
+    public long refresh() throws IOException, InterruptedException {
+        byte[] body = this.postJson("/api/auth/refresh", Map.of("token", this.refreshToken));
+        this.accessToken = objectMapper.readTree(body).get("accessToken").asText();
+        return body.length;
+    }
+
+    public long list() throws IOException, InterruptedException {
+        return this.send(this.authorized("/api/storage/files/").GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray()).body().length;
+    }
+
+    public long upload(String name, byte[] content) throws IOException, InterruptedException {
+        String boundary = UUID.randomUUID().toString();
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + name + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n";
+        String tail = "\r\n--" + boundary + "--\r\n";
+
+        HttpRequest request = this.authorized("/api/storage/file/")
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.concat(
+                        HttpRequest.BodyPublishers.ofString(head),
+                        HttpRequest.BodyPublishers.ofByteArray(content),
+                        HttpRequest.BodyPublishers.ofString(tail)))
+                .build();
+        this.send(request, HttpResponse.BodyHandlers.discarding());
+        return content.length;
+    }
+
+    public long download(String name) throws IOException, InterruptedException {
+        HttpRequest request = this.authorized("/api/storage/load/?src="
+                + URLEncoder.encode(name, StandardCharsets.UTF_8)).GET().build();
+        try (InputStream inputStream = this.send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+            return inputStream.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(this.baseUrl + path))
+                .header("Authorization", "Bearer " + this.accessToken);
+    }
+
+    private byte[] postJson(String path, Map<String, String> payload) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(this.baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(payload)))
+                .build();
+        return this.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        HttpResponse<T> response = this.httpClient.send(request, bodyHandler);
+        if (response.statusCode() / 100 != 2) {
+            if (response.body() instanceof InputStream inputStream)
+                inputStream.close();
+            throw new IOException("HTTP " + response.statusCode() + " from " + request.method() + " " + request.uri());
+        }
+        return response;
+    }
+}
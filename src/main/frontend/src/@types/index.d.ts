@@ -32,11 +32,21 @@ type FileType = {
   size: number;
 };
 
+type StorageJob = {
+  id: string;
+  type: string;
+  status: "queued" | "running" | "completed" | "cancelled" | "failed";
+  totalBytes: number;
+  processedBytes: number;
+  files: FileType[];
+  error?: string;
+};
+
 type APIError = {
   timestamp: string;
   status: number;
   error: string;
-  trace: string;
+  trace?: string;
   message: string;
   path: string;
 };
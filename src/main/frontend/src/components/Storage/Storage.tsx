@@ -4,7 +4,7 @@ import { IconContext } from "react-icons";
 import { FiUpload, FiFolderPlus, FiDownload, FiTrash2 } from "react-icons/fi";
 import { RxCheck, RxCross2 } from "react-icons/rx";
 import { FcFile, FcFolder } from "react-icons/fc";
-import UserService from "../../services/user-service";
+import UserService, { StorageJobError } from "../../services/user-service";
 import FileComponent from "../FileComponent/FileComponent";
 import FileContextMenu from "../FileContextMenu/FileContextMenu";
 import ModalWindow from "../ModalWindow/ModalWindow";
@@ -217,6 +217,13 @@ const Storage = () => {
             .filter((_, index) => index < invalidIndex)
             .forEach((filename) => removeFile(filename));
         else if (pathRef.current.join("/") === destPath.join("/")) getFiles();
+      } else if (error instanceof StorageJobError) {
+        const currentPath = pathRef.current.join("/");
+        if (
+          currentPath === srcPath.join("/") ||
+          currentPath === destPath.join("/")
+        )
+          getFiles();
       }
       throw error;
     }
@@ -256,6 +263,11 @@ const Storage = () => {
         filenames.forEach((filename) => removeFile(filename));
     } catch (error: unknown) {
       filenames.forEach((filename) => removeProcessedFile(filename, srcPath));
+      if (
+        error instanceof StorageJobError &&
+        pathRef.current.join("/") === srcPath.join("/")
+      )
+        getFiles();
       throw error;
     }
   };
@@ -327,6 +339,8 @@ const Storage = () => {
         } catch (error: unknown) {
           if (error instanceof AxiosError && error.response?.status === 400)
             modalService.showError(error.response?.data.message);
+          else if (error instanceof StorageJobError)
+            modalService.showError(error.message);
           else {
             modalService.closeModal();
             throw error;
@@ -1,6 +1,27 @@
 import api from "./api";
 
 const baseURI = "/api/storage";
+const jobPollInterval = 500;
+
+export class StorageJobError extends Error {
+  job: StorageJob;
+
+  constructor(job: StorageJob) {
+    super(job.error || `Storage job ${job.status}`);
+    this.job = job;
+  }
+}
+
+const awaitJob = async (job: StorageJob): Promise<StorageJob> => {
+  while (job.status === "queued" || job.status === "running") {
+    await new Promise((resolve) => setTimeout(resolve, jobPollInterval));
+    const response = await api.get<StorageJob>(`${baseURI}/job/${job.id}`);
+    job = response.data;
+  }
+
+  if (job.status !== "completed") throw new StorageJobError(job);
+  return job;
+};
 
 const loadFile = async (path: string[], source: string): Promise<FileType> => {
   const encodedPath = path.map((dir) => encodeURIComponent(dir)).join("/");
@@ -91,10 +112,11 @@ const moveFiles = async (
   const encodedDestination = encodeURIComponent(destination);
   const URI =
     path.length > 0
-      ? `${baseURI}/files/${encodedPath}?src=${encodedSources}&dest=${encodedDestination}`
-      : `${baseURI}/files?src=${encodedSources}&dest=${encodedDestination}`;
-  const response = await api.put<FileType[]>(URI);
-  return response.data;
+      ? `${baseURI}/move/${encodedPath}?src=${encodedSources}&dest=${encodedDestination}`
+      : `${baseURI}/move?src=${encodedSources}&dest=${encodedDestination}`;
+  const response = await api.post<StorageJob>(URI);
+  const job = await awaitJob(response.data);
+  return job.files;
 };
 
 const renameFile = async (path: string[], source: string, name: string) => {
@@ -110,13 +132,7 @@ const renameFile = async (path: string[], source: string, name: string) => {
 };
 
 const deleteFile = async (path: string[], source: string) => {
-  const encodedPath = path.map((dir) => encodeURIComponent(dir)).join("/");
-  const encodedSource = encodeURIComponent(source);
-  const URI =
-    path.length > 0
-      ? `${baseURI}/file/${encodedPath}?src=${encodedSource}`
-      : `${baseURI}/file?src=${encodedSource}`;
-  await api.delete(URI);
+  await deleteFiles(path, [source]);
 };
 
 const deleteFiles = async (path: string[], sources: string[]) => {
@@ -126,9 +142,10 @@ const deleteFiles = async (path: string[], sources: string[]) => {
     .join("<");
   const URI =
     path.length > 0
-      ? `${baseURI}/files/${encodedPath}?src=${encodedSource}`
-      : `${baseURI}/files?src=${encodedSource}`;
-  await api.delete(URI);
+      ? `${baseURI}/delete/${encodedPath}?src=${encodedSource}`
+      : `${baseURI}/delete?src=${encodedSource}`;
+  const response = await api.post<StorageJob>(URI);
+  await awaitJob(response.data);
 };
 
 const UserService = {
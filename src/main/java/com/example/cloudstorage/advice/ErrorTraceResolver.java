@@ -0,0 +1,37 @@
+package com.example.cloudstorage.advice;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+@Component
+public class ErrorTraceResolver {
+    private static final String TRACE_PARAMETER = "trace";
+
+    private final ErrorProperties.IncludeAttribute includeStacktrace;
+
+    @Autowired
+    public ErrorTraceResolver(ServerProperties properties) {
+        this.includeStacktrace = properties.getError().getIncludeStacktrace();
+    }
+
+    public boolean includeTrace(HttpServletRequest request) {
+        return this.includeTrace(request.getParameter(TRACE_PARAMETER));
+    }
+
+    public boolean includeTrace(ServerRequest request) {
+        return this.includeTrace(request.queryParam(TRACE_PARAMETER).orElse(null));
+    }
+
+    private boolean includeTrace(String parameter) {
+        return switch (this.includeStacktrace) {
+            case ALWAYS -> true;
+            case ON_PARAM -> parameter != null && !parameter.equalsIgnoreCase("false");
+            case NEVER -> false;
+        };
+    }
+}
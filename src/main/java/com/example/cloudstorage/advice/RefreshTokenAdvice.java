@@ -2,6 +2,7 @@ package com.example.cloudstorage.advice;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -15,6 +16,9 @@ import com.example.cloudstorage.models.APIError;
 @SuppressWarnings("unused")
 @RestControllerAdvice
 public class RefreshTokenAdvice {
+    @Autowired
+    private ErrorTraceResolver errorTraceResolver;
+
     @ExceptionHandler(RefreshTokenExpiredException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
     protected APIError handleRefreshTokenExpired(RefreshTokenExpiredException ex,
@@ -23,7 +27,8 @@ public class RefreshTokenAdvice {
                 HttpStatus.FORBIDDEN.value(),
                 HttpStatus.FORBIDDEN.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
         );
     }
 
@@ -35,7 +40,8 @@ public class RefreshTokenAdvice {
                 HttpStatus.NOT_FOUND.value(),
                 HttpStatus.NOT_FOUND.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
         );
     }
 
@@ -47,7 +53,8 @@ public class RefreshTokenAdvice {
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
                 HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
         );
     }
 }
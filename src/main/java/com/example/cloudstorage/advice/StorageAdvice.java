@@ -2,52 +2,64 @@ package com.example.cloudstorage.advice;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.example.cloudstorage.exceptions.storage.StorageBatchException;
 import com.example.cloudstorage.exceptions.storage.StorageException;
-import com.example.cloudstorage.exceptions.storage.StorageFileNotFoundException;
 import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
+import com.example.cloudstorage.metrics.StorageMetrics;
 import com.example.cloudstorage.models.APIError;
+import com.example.cloudstorage.models.BatchAPIError;
 
 @SuppressWarnings("unused")
 @RestControllerAdvice
 public class StorageAdvice {
-    @ExceptionHandler(StorageInvalidRequestException.class)
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    protected APIError handleStorageInvalidRequest(StorageInvalidRequestException ex,
-                                                   HttpServletRequest request) {
-        return new APIError(
-                HttpStatus.BAD_REQUEST.value(),
-                HttpStatus.BAD_REQUEST.getReasonPhrase(),
-                ex,
-                request.getRequestURI()
-        );
-    }
+    @Autowired
+    private StorageMetrics storageMetrics;
+
+    @Autowired
+    private ErrorTraceResolver errorTraceResolver;
 
-    @ExceptionHandler(StorageFileNotFoundException.class)
-    @ResponseStatus(HttpStatus.NOT_FOUND)
-    protected APIError handleStorageFileNotFound(StorageFileNotFoundException ex,
-                                                 HttpServletRequest request) {
-        return new APIError(
-                HttpStatus.NOT_FOUND.value(),
-                HttpStatus.NOT_FOUND.getReasonPhrase(),
+    @ExceptionHandler(StorageBatchException.class)
+    protected ResponseEntity<APIError> handleStorageBatch(StorageBatchException ex,
+                                                          HttpServletRequest request) {
+        HttpStatus status = switch (ex.getCause()) {
+            case StorageInvalidRequestException cause -> HttpStatus.BAD_REQUEST;
+            case StorageQuotaExceededException cause -> HttpStatus.INSUFFICIENT_STORAGE;
+            default -> HttpStatus.INTERNAL_SERVER_ERROR;
+        };
+        this.storageMetrics.recordError(ex, status);
+
+        return ResponseEntity.status(status).body(new BatchAPIError(
+                status.value(),
+                status.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
-        );
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request),
+                ex.getResults()
+        ));
     }
 
     @ExceptionHandler(StorageException.class)
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    protected APIError handleStorage(StorageException ex,
-                                     HttpServletRequest request) {
-        return new APIError(
-                HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(),
+    protected ResponseEntity<APIError> handleStorage(StorageException ex,
+                                                     HttpServletRequest request) {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+        HttpStatus status = responseStatus != null ? responseStatus.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+        this.storageMetrics.recordError(ex, status);
+
+        return ResponseEntity.status(status).body(new APIError(
+                status.value(),
+                status.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
-        );
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
+        ));
     }
 }
@@ -2,11 +2,13 @@ package com.example.cloudstorage.advice;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import com.example.cloudstorage.exceptions.user.AuthenticationBusyException;
 import com.example.cloudstorage.exceptions.user.EmailTakenException;
 import com.example.cloudstorage.exceptions.user.UserException;
 import com.example.cloudstorage.exceptions.user.UsernameTakenException;
@@ -15,6 +17,9 @@ import com.example.cloudstorage.models.APIError;
 @SuppressWarnings("unused")
 @RestControllerAdvice
 public class UserAdvice {
+    @Autowired
+    private ErrorTraceResolver errorTraceResolver;
+
     @ExceptionHandler(UsernameTakenException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     protected APIError handleUsernameTaken(UsernameTakenException ex,
@@ -23,7 +28,8 @@ public class UserAdvice {
                 HttpStatus.CONFLICT.value(),
                 HttpStatus.CONFLICT.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
         );
     }
 
@@ -35,7 +41,21 @@ public class UserAdvice {
                 HttpStatus.CONFLICT.value(),
                 HttpStatus.CONFLICT.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
+        );
+    }
+
+    @ExceptionHandler(AuthenticationBusyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    protected APIError handleAuthenticationBusy(AuthenticationBusyException ex,
+                                                HttpServletRequest request) {
+        return new APIError(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex,
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
         );
     }
 
@@ -47,7 +67,8 @@ public class UserAdvice {
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
                 HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase(),
                 ex,
-                request.getRequestURI()
+                request.getRequestURI(),
+                this.errorTraceResolver.includeTrace(request)
         );
     }
 }
@@ -1,16 +1,18 @@
 package com.example.cloudstorage.controllers;
 
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
-import com.example.cloudstorage.exceptions.storage.StorageFileNotFoundException;
 import jakarta.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,7 +20,9 @@ import com.example.cloudstorage.models.User;
 import com.example.cloudstorage.models.RefreshToken;
 import com.example.cloudstorage.repository.UserRepository;
 import com.example.cloudstorage.jwt.JwtUtils;
+import com.example.cloudstorage.services.AuthExecutorService;
 import com.example.cloudstorage.services.UserDetailsImpl;
+import com.example.cloudstorage.services.UserDetailsServiceImpl;
 import com.example.cloudstorage.services.RefreshTokenService;
 import com.example.cloudstorage.services.StorageService;
 import com.example.cloudstorage.payload.request.LoginRequest;
@@ -52,51 +56,42 @@ public class AuthController {
     @Autowired
     private StorageService storageService;
 
-    @PostMapping("/login")
-    @ResponseBody
-    public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
-        Authentication authentication = this.authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        String accessToken = this.jwtUtils.generateJwtToken(userDetails);
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
 
-        this.refreshTokenService.deleteUserById(userDetails.getId());
-        RefreshToken refreshToken = this.refreshTokenService.createRefreshToken(userDetails.getId());
-        JwtResponse response = new JwtResponse(
-                accessToken,
-                refreshToken.getToken(),
-                userDetails.getId(),
-                userDetails.getUsername(),
-                userDetails.getEmail()
-        );
+    @Autowired
+    private AuthExecutorService authExecutorService;
 
-        try {
-            this.storageService.loadFile(Paths.get(userDetails.getUsername()));
-        } catch (StorageFileNotFoundException ex) {
-            this.storageService.createDirectory(Paths.get(""), userDetails.getUsername());
-        }
+    @Autowired
+    @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    private AsyncTaskExecutor taskExecutor;
 
-        return ResponseEntity.ok(response);
+    @PostMapping("/login")
+    @ResponseBody
+    public CompletableFuture<ResponseEntity<JwtResponse>> authenticateUser(
+            @Valid @RequestBody LoginRequest loginRequest) {
+        return this.authExecutorService.submit(() -> this.authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())))
+                .thenApplyAsync(this::buildJwtResponse, this.taskExecutor);
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
         if (this.userRepository.existsByUsername(signUpRequest.getUsername()))
             throw new UsernameTakenException();
 
         if (this.userRepository.existsByEmail(signUpRequest.getEmail()))
             throw new EmailTakenException();
 
-        User user = new User(
-                signUpRequest.getUsername(),
-                signUpRequest.getEmail(),
-                this.encoder.encode(signUpRequest.getPassword())
-        );
+        return this.authExecutorService.submit(() -> this.encoder.encode(signUpRequest.getPassword()))
+                .thenApplyAsync(password -> {
+                    User user = new User(signUpRequest.getUsername(), signUpRequest.getEmail(), password);
 
-        this.userRepository.save(user);
+                    this.userRepository.save(user);
+                    this.userDetailsService.evictUser(user.getUsername());
 
-        return ResponseEntity.ok().build();
+                    return ResponseEntity.ok().build();
+                }, this.taskExecutor);
     }
 
     @PostMapping("/refresh")
@@ -117,4 +112,23 @@ public class AuthController {
 
         return ResponseEntity.ok(response);
     }
+
+    private ResponseEntity<JwtResponse> buildJwtResponse(Authentication authentication) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        String accessToken = this.jwtUtils.generateJwtToken(userDetails);
+
+        String refreshToken = this.refreshTokenService.rotateRefreshToken(userDetails.getId());
+        JwtResponse response = new JwtResponse(
+                accessToken,
+                refreshToken,
+                userDetails.getId(),
+                userDetails.getUsername(),
+                userDetails.getEmail()
+        );
+
+        if (this.storageService.findFile(Paths.get(userDetails.getUsername())).isEmpty())
+            this.storageService.createDirectory(Paths.get(""), userDetails.getUsername());
+
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,164 @@
+package com.example.cloudstorage.controllers;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.function.Consumer;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import com.example.cloudstorage.advice.ErrorTraceResolver;
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.models.APIError;
+import com.example.cloudstorage.payload.response.FileResponse;
+import com.example.cloudstorage.services.ReactiveStorageService;
+import com.example.cloudstorage.services.UserDetailsImpl;
+import com.example.cloudstorage.transfer.FileDownloadHandler;
+import com.example.cloudstorage.transfer.FileDownloadHandler.Region;
+
+@Component
+public class ReactiveStorageHandler {
+    @Autowired
+    private ReactiveStorageService reactiveStorageService;
+
+    @Autowired
+    private ErrorTraceResolver errorTraceResolver;
+
+    public Mono<ServerResponse> downloadFile(ServerRequest request) {
+        String username = getUsername(request);
+        String source = request.queryParam("src").orElse("");
+        if (source.isEmpty())
+            return Mono.error(new StorageInvalidRequestException("Invalid parameters for download request", source));
+
+        Path filePath = Paths.get(username, request.pathVariable("path"), source);
+        String filename = filePath.getFileName().toString();
+        ContentDisposition contentDisposition = ContentDisposition.builder("attachment")
+                .filename(filename, StandardCharsets.UTF_8)
+                .build();
+
+        return this.reactiveStorageService.loadFile(filePath)
+                .flatMap(file -> Mono.zip(this.reactiveStorageService.readAttributes(file),
+                                this.reactiveStorageService.loadContentType(filePath))
+                        .flatMap(loaded -> this.buildDownload(
+                                request, file, loaded.getT1(), loaded.getT2(), contentDisposition)));
+    }
+
+    public Mono<ServerResponse> streamFile(ServerRequest request) {
+        String username = getUsername(request);
+        String name = request.queryParam("name").orElse("");
+        if (name.isEmpty())
+            return Mono.error(new StorageInvalidRequestException("Invalid parameters for upload request", name));
+
+        Path path = Paths.get(username, request.pathVariable("path"));
+        return this.reactiveStorageService.uploadFile(path, name, request.bodyToFlux(DataBuffer.class))
+                .flatMap(metadata -> ServerResponse.ok().bodyValue(FileResponse.build(metadata)));
+    }
+
+    public Mono<ServerResponse> handleError(Throwable ex, ServerRequest request) {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ex.getClass(), ResponseStatus.class);
+        HttpStatus status = responseStatus != null ? responseStatus.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new APIError(status.value(), status.getReasonPhrase(), ex, request.path(),
+                        this.errorTraceResolver.includeTrace(request)));
+    }
+
+    private Mono<ServerResponse> buildDownload(ServerRequest request,
+                                               Path file,
+                                               BasicFileAttributes attributes,
+                                               String contentType,
+                                               ContentDisposition contentDisposition) {
+        HttpHeaders requestHeaders = request.headers().asHttpHeaders();
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String eTag = FileDownloadHandler.buildETag(length, lastModified);
+
+        Consumer<HttpHeaders> validators = responseHeaders -> {
+            responseHeaders.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            responseHeaders.set(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+            responseHeaders.setETag(eTag);
+            responseHeaders.setLastModified(lastModified);
+        };
+        Consumer<HttpHeaders> headers = validators.andThen(responseHeaders -> {
+            responseHeaders.set(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString());
+            responseHeaders.set(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.CONTENT_DISPOSITION);
+            responseHeaders.setContentType(MediaType.parseMediaType(contentType));
+        });
+
+        if (FileDownloadHandler.isNotModified(requestHeaders, eTag, lastModified))
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                    .headers(validators)
+                    .build();
+
+        List<HttpRange> ranges = FileDownloadHandler.parseRanges(requestHeaders, eTag, lastModified);
+        if (ranges.isEmpty())
+            return ServerResponse.ok()
+                    .headers(headers)
+                    .contentLength(length)
+                    .body(BodyInserters.fromDataBuffers(this.reactiveStorageService.readFile(file, 0, length)));
+
+        List<Region> regions = FileDownloadHandler.toRegions(ranges, length);
+        if (regions.isEmpty())
+            return ServerResponse.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .headers(validators)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                    .build();
+
+        if (regions.size() == 1) {
+            Region region = regions.get(0);
+            return ServerResponse.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
+                    .header(HttpHeaders.CONTENT_RANGE, region.contentRange(length))
+                    .contentLength(region.count())
+                    .body(BodyInserters.fromDataBuffers(
+                            this.reactiveStorageService.readFile(file, region.start(), region.count())));
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        Flux<DataBuffer> body = Flux.fromIterable(regions)
+                .concatMap(region -> this.reactiveStorageService.readFile(file, region.start(), region.count())
+                        .startWith(wrap(region.partHeader(boundary, contentType, length))))
+                .concatWith(Mono.fromSupplier(() -> wrap(FileDownloadHandler.closingBoundary(boundary))));
+        return ServerResponse.status(HttpStatus.PARTIAL_CONTENT)
+                .headers(headers)
+                .contentType(MediaType.parseMediaType("multipart/byteranges; boundary=" + boundary))
+                .body(BodyInserters.fromDataBuffers(body));
+    }
+
+    private static DataBuffer wrap(byte[] bytes) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+    }
+
+    private static String getUsername(ServerRequest request) {
+        HttpServletRequest servletRequest = ServerHttpRequestDecorator.getNativeRequest(request.exchange().getRequest());
+        if (!(servletRequest.getUserPrincipal() instanceof Authentication authentication))
+            throw new StorageException("Request is not authenticated");
+
+        return ((UserDetailsImpl) authentication.getPrincipal()).getUsername();
+    }
+}
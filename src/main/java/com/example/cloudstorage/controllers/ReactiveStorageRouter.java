@@ -0,0 +1,32 @@
+package com.example.cloudstorage.controllers;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+
+@Configuration
+@ConditionalOnProperty(name = "storage.reactive-enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveStorageRouter {
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveStorageServlet(ReactiveStorageHandler handler) {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .GET("/storage/load/{*path}", handler::downloadFile)
+                .POST("/storage/stream/{*path}", handler::streamFile)
+                .onError(StorageException.class, handler::handleError)
+                .build();
+
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration = new ServletRegistrationBean<>(
+                new ServletHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes)), "/api/reactive/*");
+        registration.setName("reactiveStorage");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
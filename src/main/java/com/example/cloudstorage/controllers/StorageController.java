@@ -1,44 +1,87 @@
 package com.example.cloudstorage.controllers;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-
-import org.apache.tika.Tika;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.jetbrains.annotations.NotNull;
 
+import com.example.cloudstorage.transfer.FileDownloadHandler;
 import com.example.cloudstorage.services.UserDetailsImpl;
 import com.example.cloudstorage.services.StorageService;
+import com.example.cloudstorage.services.BatchUploadService;
+import com.example.cloudstorage.services.UploadSessionService;
+import com.example.cloudstorage.services.FileIndexService;
+import com.example.cloudstorage.services.StorageQuotaService;
+import com.example.cloudstorage.services.StorageJobService;
+import com.example.cloudstorage.models.FileMetadata;
+import com.example.cloudstorage.models.StorageJob;
+import com.example.cloudstorage.models.UploadSession;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.payload.response.FilePageResponse;
 import com.example.cloudstorage.payload.response.FileResponse;
+import com.example.cloudstorage.payload.response.FileUploadResponse;
+import com.example.cloudstorage.payload.response.StorageJobResponse;
+import com.example.cloudstorage.payload.response.StorageUsageResponse;
+import com.example.cloudstorage.payload.response.UploadSessionResponse;
+import com.example.cloudstorage.exceptions.storage.StorageBatchException;
 import com.example.cloudstorage.exceptions.storage.StorageException;
 import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
 
 @SuppressWarnings("unused")
 @RestController
 @RequestMapping("/api/storage")
 public class StorageController {
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private StorageService storageService;
 
+    @Autowired
+    private BatchUploadService batchUploadService;
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private FileDownloadHandler fileDownloadHandler;
+
+    @Autowired
+    private FileIndexService fileIndexService;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private StorageJobService storageJobService;
+
     @GetMapping("/file/{*path}")
     @ResponseBody
     public ResponseEntity<FileResponse> loadFile(@AuthenticationPrincipal UserDetailsImpl user,
@@ -50,49 +93,99 @@ public class StorageController {
         Path file = this.storageService.loadFile(Paths.get(user.getUsername(), path, source));
         FileResponse response = this.buildFileResponse(file);
 
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(buildETag(List.of(response), null))
+                .body(response);
     }
 
     @GetMapping("/files/{*path}")
     @ResponseBody
     public ResponseEntity<List<FileResponse>> loadDirectory(@AuthenticationPrincipal UserDetailsImpl user,
-                                                            @PathVariable String path) {
-        List<Path> directory = this.storageService.loadDirectory(Paths.get(user.getUsername(), path));
+                                                            @PathVariable String path,
+                                                            @RequestParam(value = "sort", defaultValue = "type")
+                                                            String sortKey,
+                                                            @RequestParam(value = "desc", defaultValue = "false")
+                                                            Boolean descending) {
+        Sort sort = FileIndexService.buildSort(sortKey, descending);
+        List<FileMetadata> directory = this.storageService.loadDirectory(Paths.get(user.getUsername(), path), sort);
         List<FileResponse> responses = directory.stream()
-                .map(this::buildFileResponse)
-                .sorted(Comparator.comparing(FileResponse::getLastModified))
-                .sorted(Comparator.comparing(FileResponse::getType))
+                .map(FileResponse::build)
                 .collect(Collectors.toList());
 
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(buildETag(responses, null))
+                .body(responses);
+    }
+
+    @GetMapping("/page/{*path}")
+    @ResponseBody
+    public ResponseEntity<FilePageResponse> loadDirectoryPage(@AuthenticationPrincipal UserDetailsImpl user,
+                                                              @PathVariable String path,
+                                                              @RequestParam(value = "sort", defaultValue = "type")
+                                                              String sortKey,
+                                                              @RequestParam(value = "desc", defaultValue = "false")
+                                                              Boolean descending,
+                                                              @RequestParam(value = "limit", defaultValue = "100")
+                                                              Integer limit,
+                                                              @RequestParam(value = "cursor", required = false)
+                                                              String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new StorageInvalidRequestException(
+                    "Page size must be between 1 and " + MAX_PAGE_SIZE, String.valueOf(limit));
+
+        Sort sort = FileIndexService.buildSort(sortKey, descending);
+        Window<FileMetadata> page = this.storageService.loadDirectory(Paths.get(user.getUsername(), path), sort,
+                this.fileIndexService.decodeCursor(cursor, sort), limit);
+        FilePageResponse response = new FilePageResponse(
+                page.stream().map(FileResponse::build).collect(Collectors.toList()),
+                page.hasNext() ? this.fileIndexService.encodeCursor(page.positionAt(page.size() - 1)) : null
+        );
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(buildETag(response.getFiles(), response.getNextCursor()))
+                .body(response);
+    }
+
+    @GetMapping("/usage")
+    @ResponseBody
+    public ResponseEntity<StorageUsageResponse> loadUsage(@AuthenticationPrincipal UserDetailsImpl user) {
+        User owner = this.storageQuotaService.loadUser(user.getId());
+        StorageUsageResponse response = new StorageUsageResponse(
+                owner.getUsedBytes(), this.storageQuotaService.getQuota(owner));
+
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping("/load/{*path}")
     @ResponseBody
-    public ResponseEntity<Resource> downloadFile(@AuthenticationPrincipal UserDetailsImpl user,
-                                                 @PathVariable String path,
-                                                 @RequestParam("src") String source) throws IOException {
+    public ResponseEntity<StreamingResponseBody> downloadFile(@AuthenticationPrincipal UserDetailsImpl user,
+                                                              @PathVariable String path,
+                                                              @RequestParam("src") String source,
+                                                              HttpServletRequest request)
+            throws IOException {
         if (source.isEmpty())
             throw new StorageInvalidRequestException("Invalid parameters for download request", source);
 
         final Path filePath = Paths.get(user.getUsername(), path, source);
-        Resource file = this.storageService.loadAsResource(filePath);
-        String type = new Tika().detect(file.getFilename());
-        String contentType = type != null ? type : MediaType.APPLICATION_OCTET_STREAM_VALUE;
-        String filename = file.getFilename();
+        final Path target = this.storageService.loadFile(filePath);
+        if (Files.isDirectory(target)) {
+            final HttpHeaders headers = getDownloadHeaders(filePath.getFileName() + ".zip", "application/zip");
 
-        if (!filePath.getFileName().toString().equals(filename)) {
-            assert filename != null;
-            this.storageService.deleteFile(filePath.getParent().resolve(filename));
-            filename = filePath.getFileName() + ".zip";
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(outputStream -> this.storageService.zipDirectory(filePath, outputStream));
         }
 
+        Resource file = this.storageService.loadAsResource(filePath);
+        String filename = filePath.getFileName().toString();
+        String type = this.fileIndexService.load(target).getContentType();
+        String contentType = type != null ? type : MediaType.APPLICATION_OCTET_STREAM_VALUE;
         final HttpHeaders headers = getDownloadHeaders(filename, contentType);
 
-        return ResponseEntity.ok()
-                .contentLength(file.contentLength())
-                .headers(headers)
-                .body(file);
+        return this.fileDownloadHandler.download(file.getFile().toPath(), request, headers);
     }
 
     @PostMapping("/file/{*path}")
@@ -111,9 +204,23 @@ public class StorageController {
     public ResponseEntity<List<FileResponse>> uploadFiles(@AuthenticationPrincipal UserDetailsImpl user,
                                                           @PathVariable(required = false) String path,
                                                           @RequestParam("files") MultipartFile[] multipartFiles) {
-        List<FileResponse> responses = Arrays.stream(multipartFiles)
-                .map(multipartFile -> this.storageService
-                        .uploadFile(Paths.get(user.getUsername(), path), multipartFile))
+        List<BatchUploadService.Result> results = this.batchUploadService
+                .uploadFiles(Paths.get(user.getUsername(), path), multipartFiles);
+
+        Optional<StorageException> failure = results.stream()
+                .map(BatchUploadService.Result::error)
+                .filter(Objects::nonNull)
+                .findFirst();
+        if (failure.isPresent())
+            throw new StorageBatchException(results.stream()
+                    .map(result -> new FileUploadResponse(
+                            result.name(),
+                            result.failed() ? null : this.buildFileResponse(result.file()),
+                            result.failed() ? result.error().getMessage() : null))
+                    .toList(), failure.get());
+
+        List<FileResponse> responses = results.stream()
+                .map(BatchUploadService.Result::file)
                 .map(this::buildFileResponse)
                 .sorted(Comparator.comparing(FileResponse::getLastModified))
                 .sorted(Comparator.comparing(FileResponse::getType))
@@ -122,6 +229,87 @@ public class StorageController {
         return ResponseEntity.ok(responses);
     }
 
+    @PostMapping(value = "/stream/{*path}",
+            consumes = {"!" + MediaType.MULTIPART_FORM_DATA_VALUE, "!" + MediaType.APPLICATION_FORM_URLENCODED_VALUE})
+    @ResponseBody
+    public ResponseEntity<FileResponse> streamFile(@AuthenticationPrincipal UserDetailsImpl user,
+                                                   @PathVariable(required = false) String path,
+                                                   @RequestParam("name") String name,
+                                                   InputStream inputStream,
+                                                   HttpServletRequest request) {
+        if (name.isEmpty())
+            throw new StorageInvalidRequestException("Invalid parameters for upload request", name);
+
+        Path directory = Paths.get(user.getUsername(), path);
+        if (request.getContentLengthLong() > this.storageQuotaService.remaining(
+                this.storageService.loadFile(directory), name))
+            throw new StorageQuotaExceededException(name);
+
+        Path file = this.storageService.uploadFile(directory, name, inputStream);
+        FileResponse response = this.buildFileResponse(file);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/uploads/{*path}")
+    @ResponseBody
+    public ResponseEntity<UploadSessionResponse> createUploadSession(@AuthenticationPrincipal UserDetailsImpl user,
+                                                                     @PathVariable(required = false) String path,
+                                                                     @RequestParam("name") String name,
+                                                                     @RequestParam("size") Long size) {
+        if (name.isEmpty())
+            throw new StorageInvalidRequestException("Invalid parameters for upload request", name);
+
+        UploadSession session = this.uploadSessionService
+                .createSession(user.getId(), Paths.get(user.getUsername(), path), name, size);
+        UploadSessionResponse response = this.buildUploadSessionResponse(session);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/upload/{id}")
+    @ResponseBody
+    public ResponseEntity<UploadSessionResponse> loadUploadSession(@AuthenticationPrincipal UserDetailsImpl user,
+                                                                   @PathVariable String id) {
+        UploadSession session = this.uploadSessionService.loadSession(user.getId(), id);
+        UploadSessionResponse response = this.buildUploadSessionResponse(session);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/upload/{id}")
+    @ResponseBody
+    public ResponseEntity<String> uploadChunk(@AuthenticationPrincipal UserDetailsImpl user,
+                                              @PathVariable String id,
+                                              @RequestParam("offset") Long offset,
+                                              InputStream inputStream) {
+        UploadSession session = this.uploadSessionService.loadSession(user.getId(), id);
+        this.uploadSessionService.writeChunk(session, offset, inputStream);
+
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/upload/{id}")
+    @ResponseBody
+    public ResponseEntity<FileResponse> completeUploadSession(@AuthenticationPrincipal UserDetailsImpl user,
+                                                              @PathVariable String id) {
+        UploadSession session = this.uploadSessionService.loadSession(user.getId(), id);
+        Path file = this.uploadSessionService.completeSession(session);
+        FileResponse response = this.buildFileResponse(file);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/upload/{id}")
+    @ResponseBody
+    public ResponseEntity<String> cancelUploadSession(@AuthenticationPrincipal UserDetailsImpl user,
+                                                      @PathVariable String id) {
+        UploadSession session = this.uploadSessionService.loadSession(user.getId(), id);
+        this.uploadSessionService.cancelSession(session);
+
+        return ResponseEntity.ok().build();
+    }
+
     @PostMapping("/dir/{*path}")
     @ResponseBody
     public ResponseEntity<FileResponse> createDirectory(@AuthenticationPrincipal UserDetailsImpl user,
@@ -169,6 +357,106 @@ public class StorageController {
         return ResponseEntity.ok(responses);
     }
 
+    @PostMapping("/copy/{*path}")
+    @ResponseBody
+    public ResponseEntity<StorageJobResponse> copyFiles(@AuthenticationPrincipal UserDetailsImpl user,
+                                                        @PathVariable String path,
+                                                        @RequestParam("src") String source,
+                                                        @RequestParam("dest") String destination) {
+        List<String> sources = Arrays.stream(source.split("<")).toList();
+        if (sources.isEmpty() || sources.contains("") || destination.isEmpty())
+            throw new StorageInvalidRequestException("Invalid parameters for copy request", source);
+
+        StorageJob job = this.storageJobService.copyFiles(user.getId(), sources.stream()
+                .map(filename -> Paths.get(user.getUsername(), path, filename))
+                .toList(), destination);
+        StorageJobResponse response = this.buildStorageJobResponse(job);
+
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @PostMapping("/move/{*path}")
+    @ResponseBody
+    public ResponseEntity<StorageJobResponse> moveFilesAsync(@AuthenticationPrincipal UserDetailsImpl user,
+                                                             @PathVariable String path,
+                                                             @RequestParam("src") String source,
+                                                             @RequestParam("dest") String destination) {
+        List<String> sources = Arrays.stream(source.split("<")).toList();
+        if (sources.isEmpty() || sources.contains("") || destination.isEmpty())
+            throw new StorageInvalidRequestException("Invalid parameters for move request", source);
+
+        StorageJob job = this.storageJobService.moveFiles(user.getId(), sources.stream()
+                .map(filename -> Paths.get(user.getUsername(), path, filename))
+                .toList(), destination);
+        StorageJobResponse response = this.buildStorageJobResponse(job);
+
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @PostMapping("/delete/{*path}")
+    @ResponseBody
+    public ResponseEntity<StorageJobResponse> deleteFilesAsync(@AuthenticationPrincipal UserDetailsImpl user,
+                                                               @PathVariable String path,
+                                                               @RequestParam("src") String source) {
+        List<String> sources = Arrays.stream(source.split("<")).toList();
+        if (sources.isEmpty() || sources.contains(""))
+            throw new StorageInvalidRequestException("Invalid parameters for delete request", source);
+
+        StorageJob job = this.storageJobService.deleteFiles(user.getId(), sources.stream()
+                .map(filename -> Paths.get(user.getUsername(), path, filename))
+                .toList());
+        StorageJobResponse response = this.buildStorageJobResponse(job);
+
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @PostMapping("/zip/{*path}")
+    @ResponseBody
+    public ResponseEntity<StorageJobResponse> zipDirectoryAsync(@AuthenticationPrincipal UserDetailsImpl user,
+                                                                @PathVariable String path,
+                                                                @RequestParam("src") String source) {
+        if (source.isEmpty())
+            throw new StorageInvalidRequestException("Invalid parameters for zip request", source);
+
+        StorageJob job = this.storageJobService.zipDirectory(user.getId(), Paths.get(user.getUsername(), path, source));
+        StorageJobResponse response = this.buildStorageJobResponse(job);
+
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping("/job/{id}")
+    @ResponseBody
+    public ResponseEntity<StorageJobResponse> loadJob(@AuthenticationPrincipal UserDetailsImpl user,
+                                                      @PathVariable String id) {
+        StorageJob job = this.storageJobService.loadJob(user.getId(), id);
+        StorageJobResponse response = this.buildStorageJobResponse(job);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/job/{id}/load")
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> downloadJobArchive(@AuthenticationPrincipal UserDetailsImpl user,
+                                                                    @PathVariable String id,
+                                                                    HttpServletRequest request) {
+        StorageJob job = this.storageJobService.loadJob(user.getId(), id);
+        Path archive = this.storageJobService.loadArchive(job);
+        final HttpHeaders headers = getDownloadHeaders(
+                job.getSourcePaths().get(0).getFileName() + ".zip", "application/zip");
+
+        return this.fileDownloadHandler.download(archive, request, headers);
+    }
+
+    @DeleteMapping("/job/{id}")
+    @ResponseBody
+    public ResponseEntity<StorageJobResponse> cancelJob(@AuthenticationPrincipal UserDetailsImpl user,
+                                                        @PathVariable String id) {
+        StorageJob job = this.storageJobService.cancelJob(user.getId(), id);
+        StorageJobResponse response = this.buildStorageJobResponse(job);
+
+        return ResponseEntity.ok(response);
+    }
+
     @PatchMapping("/file/{*path}")
     @ResponseBody
     public ResponseEntity<FileResponse> renameFile(@AuthenticationPrincipal UserDetailsImpl user,
@@ -212,18 +500,43 @@ public class StorageController {
     }
 
     private FileResponse buildFileResponse(Path file) {
-        try {
-            BasicFileAttributes fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
-            return new FileResponse(
-                    UUID.randomUUID(),
-                    file.getFileName().toString(),
-                    fileAttributes.isDirectory() ? "directory" : "file",
-                    fileAttributes.lastModifiedTime().toMillis(),
-                    fileAttributes.size()
-            );
-        } catch (IOException e) {
-            throw new StorageException("Failed to read file's attributes");
-        }
+        return FileResponse.build(this.fileIndexService.load(file));
+    }
+
+    private static String buildETag(List<FileResponse> responses, String cursor) {
+        StringBuilder builder = new StringBuilder();
+        for (FileResponse response : responses)
+            builder.append(response.getId()).append('/')
+                    .append(response.getName()).append('/')
+                    .append(response.getType()).append('/')
+                    .append(response.getSize()).append('/')
+                    .append(response.getFileCount()).append('/')
+                    .append(response.getLastModified()).append('\n');
+        builder.append(cursor);
+
+        return "\"" + DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private UploadSessionResponse buildUploadSessionResponse(UploadSession session) {
+        return new UploadSessionResponse(
+                session.getId(),
+                session.getName(),
+                session.getSize(),
+                session.getChunkSize(),
+                this.uploadSessionService.getReceivedChunks(session)
+        );
+    }
+
+    private StorageJobResponse buildStorageJobResponse(StorageJob job) {
+        return new StorageJobResponse(
+                job.getId(),
+                job.getType().name().toLowerCase(),
+                job.getStatus().name().toLowerCase(),
+                job.getTotalBytes(),
+                this.storageJobService.getProcessedBytes(job),
+                job.getResultPaths().stream().filter(Files::exists).map(this::buildFileResponse).toList(),
+                job.getError()
+        );
     }
 
     private static @NotNull HttpHeaders getDownloadHeaders(String filename, String contentType) {
@@ -0,0 +1,20 @@
+package com.example.cloudstorage.exceptions.storage;
+
+import java.io.Serial;
+import java.util.List;
+
+import lombok.Getter;
+
+import com.example.cloudstorage.payload.response.FileUploadResponse;
+
+@Getter
+public class StorageBatchException extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 1;
+    private final transient List<FileUploadResponse> results;
+
+    public StorageBatchException(List<FileUploadResponse> results, StorageException cause) {
+        super(cause.getMessage(), cause);
+        this.results = results;
+    }
+}
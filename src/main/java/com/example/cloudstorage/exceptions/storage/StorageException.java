@@ -17,4 +17,8 @@ public class StorageException extends RuntimeException {
     public StorageException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    protected StorageException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
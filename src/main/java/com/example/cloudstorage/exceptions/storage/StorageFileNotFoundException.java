@@ -12,7 +12,7 @@ public class StorageFileNotFoundException extends StorageException {
     private static final String message = "Could not find a file/directory";
 
     public StorageFileNotFoundException() {
-        super(message);
+        super(message, false);
     }
 
     @SuppressWarnings("unused")
@@ -11,7 +11,7 @@ public class StorageInvalidRequestException extends StorageException {
     private static final long serialVersionUID = 1;
 
     public StorageInvalidRequestException(String message, String source) {
-        super(String.format("Failed for [%s]: %s", source, message));
+        super(String.format("Failed for [%s]: %s", source, message), false);
     }
 
     public StorageInvalidRequestException(String message, String source, Throwable cause) {
@@ -0,0 +1,13 @@
+package com.example.cloudstorage.exceptions.storage;
+
+import java.io.Serial;
+
+public class StorageJobCancelledException extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 1;
+    private static final String message = "Storage job was cancelled";
+
+    public StorageJobCancelledException() {
+        super(message, false);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.cloudstorage.exceptions.storage;
+
+import java.io.Serial;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class StorageJobLimitException extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 1;
+    private static final String message = "Too many storage jobs in progress";
+
+    public StorageJobLimitException() {
+        super(message, false);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.cloudstorage.exceptions.storage;
+
+import java.io.Serial;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class StorageJobNotFoundException extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 1;
+    private static final String message = "Could not find a storage job";
+
+    public StorageJobNotFoundException() {
+        super(message, false);
+    }
+
+    @SuppressWarnings("unused")
+    public StorageJobNotFoundException(Throwable cause) {
+        super(message, cause);
+    }
+}
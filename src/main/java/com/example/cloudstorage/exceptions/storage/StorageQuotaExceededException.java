@@ -0,0 +1,17 @@
+package com.example.cloudstorage.exceptions.storage;
+
+import java.io.Serial;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.INSUFFICIENT_STORAGE)
+public class StorageQuotaExceededException extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 1;
+    private static final String message = "Storage quota exceeded";
+
+    public StorageQuotaExceededException(String source) {
+        super(String.format("Failed for [%s]: %s", source, message), false);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.cloudstorage.exceptions.storage;
+
+import java.io.Serial;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class StorageUploadNotFoundException extends StorageException {
+    @Serial
+    private static final long serialVersionUID = 1;
+    private static final String message = "Could not find an upload session";
+
+    public StorageUploadNotFoundException() {
+        super(message, false);
+    }
+
+    public StorageUploadNotFoundException(Throwable cause) {
+        super(message, cause);
+    }
+}
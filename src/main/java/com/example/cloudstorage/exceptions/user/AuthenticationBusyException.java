@@ -0,0 +1,21 @@
+package com.example.cloudstorage.exceptions.user;
+
+import java.io.Serial;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AuthenticationBusyException extends UserException {
+    @Serial
+    private static final long serialVersionUID = 1;
+    private static final String message = "Too many authentication requests, try again later";
+
+    public AuthenticationBusyException() {
+        super(message);
+    }
+
+    public AuthenticationBusyException(Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.cloudstorage.jwt;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,6 +21,8 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import io.jsonwebtoken.Claims;
+
 import com.example.cloudstorage.services.UserDetailsServiceImpl;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -37,10 +40,11 @@ public class AuthTokenFilter extends OncePerRequestFilter {
                                     @NotNull FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = this.parseJwt(request);
-            if (jwt != null && this.jwtUtils.validateJwtToken(jwt)) {
-                String username = this.jwtUtils.getUsernameFromJwtToken(jwt);
+            Optional<Claims> claims = jwt != null ? this.jwtUtils.parseJwtToken(jwt) : Optional.empty();
+            if (claims.isPresent()) {
+                String username = claims.get().getSubject();
 
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = this.userDetailsService.loadCachedUserByUsername(username);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities());
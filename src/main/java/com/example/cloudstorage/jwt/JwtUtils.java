@@ -2,16 +2,26 @@ package com.example.cloudstorage.jwt;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+import jakarta.annotation.PostConstruct;
+
+import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 
 import com.example.cloudstorage.services.UserDetailsImpl;
 
@@ -25,8 +35,21 @@ public class JwtUtils {
     @Value("${cloud-storage.app.jwt-expiration-ms}")
     private int jwtExpirationMs;
 
-    private SecretKey secretKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(this.jwtSecret));
+    @Value("${cloud-storage.app.jwt-cache-size}")
+    private int jwtCacheSize;
+
+    private SecretKey secretKey;
+    private JwtParser jwtParser;
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        this.secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(this.jwtSecret));
+        this.jwtParser = Jwts.parser().verifyWith(this.secretKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(this.jwtCacheSize)
+                .expireAfter(new ClaimsExpiry())
+                .build();
     }
 
     public String generateJwtToken(UserDetailsImpl userPrincipal) {
@@ -35,7 +58,7 @@ public class JwtUtils {
 
     public String generateTokenFromUsername(String username) {
         return Jwts.builder()
-                .signWith(this.secretKey())
+                .signWith(this.secretKey)
                 .claims()
                 .subject(username)
                 .issuedAt(new Date())
@@ -44,29 +67,48 @@ public class JwtUtils {
                 .compact();
     }
 
-    public String getUsernameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(this.secretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
-    }
+    public Optional<Claims> parseJwtToken(String authToken) {
+        Claims cached = this.verifiedTokens.getIfPresent(authToken);
+        if (cached != null)
+            return Optional.of(cached);
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            Jwts.parser().verifyWith(this.secretKey()).build().parseSignedClaims(authToken);
-            return true;
+            Claims claims = this.jwtParser.parseSignedClaims(authToken).getPayload();
+            if (claims.getExpiration() != null)
+                this.verifiedTokens.put(authToken, claims);
+            return Optional.of(claims);
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SecurityException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return Optional.empty();
+    }
+
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+        @Override
+        public long expireAfterCreate(@NotNull String token, @NotNull Claims claims, long currentTime) {
+            long remaining = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remaining, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(@NotNull String token, @NotNull Claims claims,
+                                      long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(@NotNull String token, @NotNull Claims claims,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,108 @@
+package com.example.cloudstorage.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StorageMetrics {
+    public static final String OPERATION = "storage.operation";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Direction, Counter> bytes = new EnumMap<>(Direction.class);
+    private final Map<Direction, AtomicInteger> transfers = new EnumMap<>(Direction.class);
+    private final Timer batchUploads;
+    private final DistributionSummary batchUploadBytes;
+
+    @Autowired
+    public StorageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Direction direction : Direction.values()) {
+            this.bytes.put(direction, Counter.builder("storage.transfer.bytes")
+                    .description("Bytes transferred to or from the storage")
+                    .baseUnit(BaseUnits.BYTES)
+                    .tag("direction", direction.getTag())
+                    .register(meterRegistry));
+
+            AtomicInteger active = new AtomicInteger();
+            this.transfers.put(direction, active);
+            Gauge.builder("storage.transfers.active", active, AtomicInteger::get)
+                    .description("Transfers currently in progress")
+                    .tag("direction", direction.getTag())
+                    .register(meterRegistry);
+        }
+
+        this.batchUploads = Timer.builder("storage.batch.upload")
+                .description("Duration of batch uploads")
+                .register(meterRegistry);
+        this.batchUploadBytes = DistributionSummary.builder("storage.batch.upload.size")
+                .description("Bytes uploaded per batch")
+                .baseUnit(BaseUnits.BYTES)
+                .register(meterRegistry);
+    }
+
+    public void recordBytes(Direction direction, long count) {
+        if (count > 0)
+            this.bytes.get(direction).increment(count);
+    }
+
+    public void recordBatchUpload(long durationNanos, long bytes) {
+        this.batchUploads.record(durationNanos, TimeUnit.NANOSECONDS);
+        this.batchUploadBytes.record(bytes);
+    }
+
+    public void transferStarted(Direction direction) {
+        this.transfers.get(direction).incrementAndGet();
+    }
+
+    public void transferFinished(Direction direction) {
+        this.transfers.get(direction).decrementAndGet();
+    }
+
+    public OutputStream countOutbound(OutputStream outputStream) {
+        return new FilterOutputStream(outputStream) {
+            @Override
+            public void write(int b) throws IOException {
+                this.out.write(b);
+                recordBytes(Direction.OUTBOUND, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                this.out.write(b, off, len);
+                recordBytes(Direction.OUTBOUND, len);
+            }
+        };
+    }
+
+    public void recordError(Exception ex, HttpStatus status) {
+        this.meterRegistry.counter("storage.errors",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+    }
+
+    public enum Direction {
+        INBOUND,
+        OUTBOUND;
+
+        public String getTag() {
+            return this.name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
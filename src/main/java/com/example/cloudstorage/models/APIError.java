@@ -7,6 +7,7 @@ import java.util.Date;
 import lombok.Getter;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 @Getter
 public class APIError {
@@ -14,16 +15,17 @@ public class APIError {
     private final Date timestamp;
     private final int status;
     private final String error;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private final String trace;
     private final String message;
     private final String path;
 
-    public APIError(int status, String error, Throwable e, String path) {
+    public APIError(int status, String error, Throwable e, String path, boolean includeTrace) {
         this.timestamp = Date.from(Instant.now());
         this.status = status;
         this.error = error;
-        this.trace = String.join("\r\n", Arrays.stream(e.getStackTrace())
-                .map(StackTraceElement::toString).toList());
+        this.trace = includeTrace ? String.join("\r\n", Arrays.stream(e.getStackTrace())
+                .map(StackTraceElement::toString).toList()) : null;
         this.message = e.getMessage();
         this.path = path;
     }
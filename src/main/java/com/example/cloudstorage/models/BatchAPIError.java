@@ -0,0 +1,18 @@
+package com.example.cloudstorage.models;
+
+import java.util.List;
+
+import lombok.Getter;
+
+import com.example.cloudstorage.payload.response.FileUploadResponse;
+
+@Getter
+public class BatchAPIError extends APIError {
+    private final List<FileUploadResponse> results;
+
+    public BatchAPIError(int status, String error, Throwable e, String path, boolean includeTrace,
+                         List<FileUploadResponse> results) {
+        super(status, error, e, path, includeTrace);
+        this.results = results;
+    }
+}
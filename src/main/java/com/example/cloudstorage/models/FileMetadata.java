@@ -0,0 +1,84 @@
+package com.example.cloudstorage.models;
+
+import java.util.UUID;
+
+import jakarta.persistence.*;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@Entity(name = "file_metadata")
+@Table(indexes = {
+        @Index(columnList = "parent")
+})
+public class FileMetadata {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, unique = true, length = 4096)
+    private String path;
+
+    @Column(nullable = false, length = 4096)
+    private String parent;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Boolean directory;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Long lastModified;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long totalSize;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long fileCount;
+
+    @Setter
+    private String contentType;
+
+    public FileMetadata(String path, String parent, String name, Boolean directory, Long size, Long lastModified) {
+        this.path = path;
+        this.parent = parent;
+        this.name = name;
+        this.directory = directory;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.totalSize = directory ? 0L : size;
+        this.fileCount = directory ? 0L : 1L;
+    }
+
+    public boolean update(Boolean directory, Long size, Long lastModified) {
+        if (this.directory.equals(directory) && this.size.equals(size) && this.lastModified.equals(lastModified))
+            return false;
+
+        if (!this.directory.equals(directory) || !directory)
+            this.updateAggregates(directory ? 0L : size, directory ? 0L : 1L);
+        this.directory = directory;
+        this.size = size;
+        this.lastModified = lastModified;
+        return true;
+    }
+
+    public boolean updateAggregates(Long totalSize, Long fileCount) {
+        if (totalSize.equals(this.totalSize) && fileCount.equals(this.fileCount))
+            return false;
+
+        this.totalSize = totalSize;
+        this.fileCount = fileCount;
+        return true;
+    }
+}
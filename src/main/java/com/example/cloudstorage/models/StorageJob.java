@@ -0,0 +1,138 @@
+package com.example.cloudstorage.models;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.*;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@Entity(name = "storage_job")
+@Table(indexes = {
+        @Index(columnList = "status"),
+        @Index(columnList = "finishedDate")
+})
+public class StorageJob {
+    private static final String SEPARATOR = "\n";
+
+    @Id
+    private String id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
+    private User user;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(nullable = false, length = 65536)
+    private String sources;
+
+    private String destination;
+
+    @Column(nullable = false)
+    private Long totalBytes;
+
+    @Column(nullable = false)
+    private Long processedBytes;
+
+    @Column(length = 65536)
+    private String results;
+
+    @Column(length = 1024)
+    private String error;
+
+    @Column(nullable = false)
+    private Instant createdDate;
+
+    private Instant finishedDate;
+
+    public StorageJob(String id, User user, Type type, List<Path> sources, String destination, Long totalBytes) {
+        this.id = id;
+        this.user = user;
+        this.type = type;
+        this.status = Status.QUEUED;
+        this.sources = join(sources);
+        this.destination = destination;
+        this.totalBytes = totalBytes;
+        this.processedBytes = 0L;
+        this.createdDate = Instant.now();
+    }
+
+    public List<Path> getSourcePaths() {
+        return split(this.sources);
+    }
+
+    public List<Path> getResultPaths() {
+        return split(this.results);
+    }
+
+    public void requeue() {
+        this.status = Status.QUEUED;
+        this.processedBytes = 0L;
+    }
+
+    public void complete(List<Path> results, long processedBytes) {
+        this.results = join(results);
+        this.finish(Status.COMPLETED, processedBytes);
+    }
+
+    public void cancel(long processedBytes) {
+        this.finish(Status.CANCELLED, processedBytes);
+    }
+
+    public void fail(String error, long processedBytes) {
+        this.error = error != null && error.length() > 1024 ? error.substring(0, 1024) : error;
+        this.finish(Status.FAILED, processedBytes);
+    }
+
+    private void finish(Status status, long processedBytes) {
+        this.status = status;
+        this.processedBytes = processedBytes;
+        this.finishedDate = Instant.now();
+    }
+
+    private static String join(List<Path> paths) {
+        return paths.stream().map(Path::toString).collect(Collectors.joining(SEPARATOR));
+    }
+
+    private static List<Path> split(String paths) {
+        if (paths == null || paths.isEmpty())
+            return List.of();
+        return Arrays.stream(paths.split(SEPARATOR)).map(Paths::get).toList();
+    }
+
+    @Getter
+    public enum Type {
+        COPY(false),
+        MOVE(false),
+        DELETE(true),
+        ZIP(true);
+
+        private final boolean restartable;
+
+        Type(boolean restartable) {
+            this.restartable = restartable;
+        }
+    }
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        CANCELLED,
+        FAILED
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.cloudstorage.models;
+
+import jakarta.persistence.*;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@Entity(name = "upload_chunk")
+@Table(uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"session_id", "chunk_index"})
+})
+public class UploadChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "session_id", referencedColumnName = "id", nullable = false)
+    private UploadSession session;
+
+    @Column(nullable = false)
+    private Integer chunkIndex;
+
+    public UploadChunk(UploadSession session, Integer chunkIndex) {
+        this.session = session;
+        this.chunkIndex = chunkIndex;
+    }
+}
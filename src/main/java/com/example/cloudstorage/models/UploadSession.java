@@ -0,0 +1,50 @@
+package com.example.cloudstorage.models;
+
+import java.time.Instant;
+
+import jakarta.persistence.*;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@Entity(name = "upload_session")
+public class UploadSession {
+    @Id
+    private String id;
+
+    @ManyToOne
+    @JoinColumn(name = "user_id", referencedColumnName = "id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Integer chunkSize;
+
+    @Column(nullable = false)
+    private Instant expiryDate;
+
+    public UploadSession(String id, User user, String path, String name, Long size, Integer chunkSize,
+                         Instant expiryDate) {
+        this.id = id;
+        this.user = user;
+        this.path = path;
+        this.name = name;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.expiryDate = expiryDate;
+    }
+
+    public long getChunkCount() {
+        return (this.size + this.chunkSize - 1) / this.chunkSize;
+    }
+}
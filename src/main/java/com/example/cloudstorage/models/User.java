@@ -5,6 +5,8 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
@@ -33,6 +35,12 @@ public class User {
     @Size(max = 120)
     private String password;
 
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long usedBytes = 0L;
+
+    private Long quotaBytes;
+
     public User(String username, String email, String password) {
         this.username = username;
         this.email = email;
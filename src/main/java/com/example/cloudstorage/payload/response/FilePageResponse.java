@@ -0,0 +1,13 @@
+package com.example.cloudstorage.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FilePageResponse {
+    private List<FileResponse> files;
+    private String nextCursor;
+}
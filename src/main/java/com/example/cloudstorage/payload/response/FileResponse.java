@@ -5,6 +5,8 @@ import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import com.example.cloudstorage.models.FileMetadata;
+
 @Getter
 @AllArgsConstructor
 public class FileResponse {
@@ -13,4 +15,16 @@ public class FileResponse {
     private String type;
     private Long lastModified;
     private Long size;
+    private Long fileCount;
+
+    public static FileResponse build(FileMetadata metadata) {
+        return new FileResponse(
+                metadata.getId(),
+                metadata.getName(),
+                metadata.getDirectory() ? "directory" : "file",
+                metadata.getLastModified(),
+                metadata.getTotalSize(),
+                metadata.getDirectory() ? metadata.getFileCount() : null
+        );
+    }
 }
@@ -0,0 +1,12 @@
+package com.example.cloudstorage.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FileUploadResponse {
+    private String name;
+    private FileResponse file;
+    private String error;
+}
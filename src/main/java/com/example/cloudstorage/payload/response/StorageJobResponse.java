@@ -0,0 +1,18 @@
+package com.example.cloudstorage.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StorageJobResponse {
+    private String id;
+    private String type;
+    private String status;
+    private Long totalBytes;
+    private Long processedBytes;
+    private List<FileResponse> files;
+    private String error;
+}
@@ -0,0 +1,11 @@
+package com.example.cloudstorage.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StorageUsageResponse {
+    private Long usedBytes;
+    private Long quotaBytes;
+}
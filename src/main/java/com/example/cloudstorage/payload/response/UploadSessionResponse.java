@@ -0,0 +1,16 @@
+package com.example.cloudstorage.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UploadSessionResponse {
+    private String id;
+    private String name;
+    private Long size;
+    private Integer chunkSize;
+    private List<Integer> receivedChunks;
+}
@@ -1,11 +1,33 @@
 package com.example.cloudstorage.properties;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 import lombok.Getter;
+import lombok.Setter;
 
 @Getter
+@Setter
 @ConfigurationProperties("storage")
 public class StorageProperties {
-    private final String location = "root";
+    private String location = "root";
+    private boolean sendfileEnabled = true;
+    private DataSize sendfileThreshold = DataSize.ofKilobytes(48);
+    private String uploadLocation = "uploads";
+    private DataSize uploadChunkSize = DataSize.ofMegabytes(8);
+    private Duration uploadExpiration = Duration.ofHours(24);
+    private int uploadSessionLimit = 8;
+    private int batchUploadThreads = 8;
+    private boolean deduplicationEnabled = false;
+    private String blobLocation = "blobs";
+    private boolean reactiveEnabled = true;
+    private DataSize reactiveBufferSize = DataSize.ofKilobytes(64);
+    private int contentTypeCacheSize = 1024;
+    private DataSize defaultQuota = DataSize.ofGigabytes(10);
+    private String jobLocation = "jobs";
+    private int jobThreads = 2;
+    private int jobQueueLimit = 16;
+    private Duration jobRetention = Duration.ofHours(24);
 }
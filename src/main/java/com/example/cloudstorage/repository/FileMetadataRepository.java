@@ -0,0 +1,56 @@
+package com.example.cloudstorage.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cloudstorage.models.FileMetadata;
+
+public interface FileMetadataRepository extends JpaRepository<FileMetadata, UUID> {
+    Optional<FileMetadata> findByPath(String path);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<FileMetadata> findLockedByPath(String path);
+
+    List<FileMetadata> findAllByParent(String parent, Sort sort);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<FileMetadata> findAllLockedByParent(String parent, Sort sort);
+
+    Window<FileMetadata> findByParent(String parent, ScrollPosition position, Sort sort, Limit limit);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update file_metadata m "
+            + "set m.totalSize = m.totalSize + :size, m.fileCount = m.fileCount + :count "
+            + "where m.path in :paths")
+    void updateAggregates(Collection<String> paths, long size, long count);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from file_metadata m where m.path = :path or m.path like :prefix escape '!'")
+    void deleteTree(String path, String prefix);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update file_metadata m "
+            + "set m.path = concat(:target, substring(m.path, :offset)), "
+            + "m.parent = concat(:target, substring(m.parent, :offset)) "
+            + "where m.path like :prefix escape '!'")
+    void moveDescendants(String prefix, String target, int offset);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update file_metadata m set m.path = :target, m.parent = :parent, m.name = :name where m.path = :path")
+    void move(String path, String target, String parent, String name);
+}
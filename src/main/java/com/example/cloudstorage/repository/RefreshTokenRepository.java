@@ -1,16 +1,30 @@
 package com.example.cloudstorage.repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.cloudstorage.models.RefreshToken;
-import com.example.cloudstorage.models.User;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByToken(String token);
 
+    @Query("select t.id from refresh_token t where t.expiryDate < :now")
+    List<Long> findExpiredIds(Instant now, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("update refresh_token t set t.token = :token, t.expiryDate = :expiryDate where t.user.id = :userId")
+    int rotate(Long userId, String token, Instant expiryDate);
+
+    @Transactional
     @Modifying
-    void deleteByUser(User user);
+    @Query("delete from refresh_token t where t.id in :ids")
+    int deleteAllByIds(List<Long> ids);
 }
@@ -0,0 +1,26 @@
+package com.example.cloudstorage.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.cloudstorage.models.StorageJob;
+
+@Repository
+public interface StorageJobRepository extends JpaRepository<StorageJob, String> {
+    List<StorageJob> findAllByStatusInOrderByCreatedDate(Collection<StorageJob.Status> statuses);
+
+    List<StorageJob> findAllByFinishedDateBefore(Instant date);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update storage_job j set j.status = :status, j.finishedDate = :finishedDate "
+            + "where j.id = :id and j.status = :expected")
+    int updateStatus(String id, StorageJob.Status expected, StorageJob.Status status, Instant finishedDate);
+}
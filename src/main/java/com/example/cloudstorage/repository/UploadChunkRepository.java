@@ -0,0 +1,23 @@
+package com.example.cloudstorage.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.cloudstorage.models.UploadChunk;
+import com.example.cloudstorage.models.UploadSession;
+
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+    boolean existsBySessionAndChunkIndex(UploadSession session, Integer chunkIndex);
+
+    long countBySession(UploadSession session);
+
+    @Query("select c.chunkIndex from upload_chunk c where c.session = :session order by c.chunkIndex")
+    List<Integer> findChunkIndexesBySession(UploadSession session);
+
+    @Modifying
+    @Query("delete from upload_chunk c where c.session = :session")
+    void deleteBySession(UploadSession session);
+}
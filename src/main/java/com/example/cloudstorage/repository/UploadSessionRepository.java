@@ -0,0 +1,23 @@
+package com.example.cloudstorage.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import com.example.cloudstorage.models.UploadSession;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+    List<UploadSession> findAllByExpiryDateBefore(Instant instant);
+
+    long countByUserId(Long userId);
+
+    @Query("select coalesce(sum(s.size), 0) from upload_session s where s.user.id = :userId")
+    long sumSizeByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from upload_session s where s.id = :id")
+    int deleteSessionById(String id);
+}
@@ -3,7 +3,10 @@ package com.example.cloudstorage.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.cloudstorage.models.User;
 
@@ -14,4 +17,26 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    void updatePassword(String username, String password);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.usedBytes = u.usedBytes + :bytes "
+            + "where u.username = :username and u.usedBytes + :bytes <= coalesce(u.quotaBytes, :defaultQuota)")
+    int reserveStorage(String username, long bytes, long defaultQuota);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.usedBytes = case when u.usedBytes > :bytes then u.usedBytes - :bytes else 0 end "
+            + "where u.username = :username")
+    void releaseStorage(String username, long bytes);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.usedBytes = :usedBytes where u.id = :id and u.usedBytes = :observed")
+    int reconcileStorage(Long id, long observed, long usedBytes);
 }
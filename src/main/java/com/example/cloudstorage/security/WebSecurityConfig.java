@@ -1,6 +1,11 @@
 package com.example.cloudstorage.security;
 
+import java.util.Map;
+
+import jakarta.servlet.DispatcherType;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,7 +16,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -30,6 +37,21 @@ public class WebSecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    @Value("${cloud-storage.app.password-encoder}")
+    private String passwordEncoderId;
+
+    @Value("${cloud-storage.app.bcrypt-strength}")
+    private int bcryptStrength;
+
+    @Value("${cloud-storage.app.argon2-memory-kb}")
+    private int argon2MemoryKb;
+
+    @Value("${cloud-storage.app.argon2-iterations}")
+    private int argon2Iterations;
+
+    @Value("${cloud-storage.app.argon2-parallelism}")
+    private int argon2Parallelism;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
@@ -41,6 +63,7 @@ public class WebSecurityConfig {
 
         authProvider.setUserDetailsService(this.userDetailsService);
         authProvider.setPasswordEncoder(this.passwordEncoder());
+        authProvider.setUserDetailsPasswordService(this.userDetailsService);
 
         return authProvider;
     }
@@ -52,7 +75,15 @@ public class WebSecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", new BCryptPasswordEncoder(this.bcryptStrength),
+                "argon2", new Argon2PasswordEncoder(16, 32,
+                        this.argon2Parallelism, this.argon2MemoryKb, this.argon2Iterations)
+        );
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(this.passwordEncoderId, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return passwordEncoder;
     }
 
     @Bean
@@ -62,8 +93,11 @@ public class WebSecurityConfig {
                         httpSecurityHeadersConfigurer.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable))
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(this.unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .authorizeHttpRequests(auth -> auth.requestMatchers("/api/auth/**").permitAll()
+                .authorizeHttpRequests(auth -> auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/**").authenticated()
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .requestMatchers("/actuator/**").authenticated()
                         .anyRequest().permitAll())
                 .authenticationProvider(this.authenticationProvider())
                 .addFilterBefore(this.authenticationJwtTokenFilter(),
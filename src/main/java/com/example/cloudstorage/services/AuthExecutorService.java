@@ -0,0 +1,100 @@
+package com.example.cloudstorage.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.cloudstorage.exceptions.user.AuthenticationBusyException;
+
+@Service
+public class AuthExecutorService implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(AuthExecutorService.class);
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    public AuthExecutorService(@Value("${cloud-storage.app.auth-threads}") int threads,
+                               @Value("${cloud-storage.app.auth-queue-capacity}") int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("auth-"));
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                this.queueWaitNanos.add(System.nanoTime() - submitted);
+                return task.get();
+            }, this.executor);
+        } catch (RejectedExecutionException e) {
+            this.rejected.increment();
+            logger.warn("Rejected an authentication request: {} queued, {} active",
+                    this.executor.getQueue().size(), this.executor.getActiveCount());
+            throw new AuthenticationBusyException(e);
+        }
+    }
+
+    public int getQueueSize() {
+        return this.executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return this.executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return this.executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+
+    public long getQueueWaitNanos() {
+        return this.queueWaitNanos.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.executor.queued", this, AuthExecutorService::getQueueSize)
+                .description("Authentication requests waiting for a thread")
+                .register(registry);
+        Gauge.builder("auth.executor.active", this, AuthExecutorService::getActiveCount)
+                .description("Authentication requests being processed")
+                .register(registry);
+        FunctionCounter.builder("auth.executor.completed", this, AuthExecutorService::getCompletedCount)
+                .description("Authentication requests processed")
+                .register(registry);
+        FunctionCounter.builder("auth.executor.rejected", this, AuthExecutorService::getRejectedCount)
+                .description("Authentication requests rejected because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("auth.executor.queue.wait", this, service -> service.getQueueWaitNanos() / 1e9)
+                .description("Total time authentication requests spent queued")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.cloudstorage.services;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.IntStream;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.metrics.StorageMetrics;
+import com.example.cloudstorage.properties.StorageProperties;
+
+@Service
+public class BatchUploadService {
+    private static final Logger logger = LoggerFactory.getLogger(BatchUploadService.class);
+
+    private final ExecutorService executor;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private StorageMetrics storageMetrics;
+
+    @Autowired
+    public BatchUploadService(StorageProperties properties, Environment environment) {
+        ThreadFactory threadFactory = Threading.VIRTUAL.isActive(environment)
+                ? Thread.ofVirtual().name("batch-upload-", 1).factory()
+                : new CustomizableThreadFactory("batch-upload-");
+        this.executor = Executors.newFixedThreadPool(properties.getBatchUploadThreads(), threadFactory);
+    }
+
+    public List<Result> uploadFiles(Path path, MultipartFile[] files) {
+        long start = System.nanoTime();
+        Set<String> names = new HashSet<>();
+        List<CompletableFuture<Result>> futures = Arrays.stream(files)
+                .map(file -> names.add(normalizeName(file.getOriginalFilename()))
+                        ? CompletableFuture.supplyAsync(() -> this.uploadFile(path, file), this.executor)
+                        : CompletableFuture.completedFuture(new Result(file.getOriginalFilename(), null,
+                                new StorageInvalidRequestException("Duplicate file name in the batch",
+                                        file.getOriginalFilename()))))
+                .toList();
+        List<Result> results = futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        long elapsed = System.nanoTime() - start;
+        long bytes = IntStream.range(0, files.length)
+                .filter(i -> !results.get(i).failed())
+                .mapToLong(i -> files[i].getSize())
+                .sum();
+        this.storageMetrics.recordBatchUpload(elapsed, bytes);
+        logger.debug("Batch upload of {} file(s), {} bytes stored in {} ms ({} failed)",
+                files.length, bytes, elapsed / 1_000_000, results.stream().filter(Result::failed).count());
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdown();
+    }
+
+    private Result uploadFile(Path path, MultipartFile file) {
+        try {
+            return new Result(file.getOriginalFilename(), this.storageService.uploadFile(path, file), null);
+        } catch (StorageException e) {
+            return new Result(file.getOriginalFilename(), null, e);
+        } catch (RuntimeException e) {
+            return new Result(file.getOriginalFilename(), null, new StorageException("Failed to store a file", e));
+        }
+    }
+
+    private static String normalizeName(String name) {
+        return name == null ? "" : name.replaceAll("\\.+$", "");
+    }
+
+    public record Result(String name, Path file, StorageException error) {
+        public boolean failed() {
+            return this.error != null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.cloudstorage.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import org.apache.tika.Tika;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.example.cloudstorage.properties.StorageProperties;
+
+@Service
+public class ContentTypeService {
+    private final Tika tika = new Tika();
+    private final Cache<String, String> extensionTypes;
+
+    @Autowired
+    public ContentTypeService(StorageProperties properties) {
+        this.extensionTypes = Caffeine.newBuilder()
+                .maximumSize(properties.getContentTypeCacheSize())
+                .build();
+    }
+
+    public String detect(String filename) {
+        int separator = filename.lastIndexOf('.');
+        if (separator <= 0 || separator == filename.length() - 1)
+            return this.tika.detect(filename);
+
+        return this.extensionTypes.get(filename.substring(separator + 1).toLowerCase(Locale.ROOT),
+                extension -> this.tika.detect("file." + extension));
+    }
+
+    public String detect(Path file) {
+        try {
+            return this.tika.detect(file);
+        } catch (IOException e) {
+            return this.detect(file.getFileName().toString());
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.cloudstorage.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.properties.StorageProperties;
+
+@SuppressWarnings("unused")
+@Service
+@ConditionalOnProperty(name = "storage.deduplication-enabled", havingValue = "true")
+public class DeduplicatingStorageService extends FileSystemStorageService {
+    private static final Logger logger = LoggerFactory.getLogger(DeduplicatingStorageService.class);
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+    private final Path blobRoot;
+    private final ReadWriteLock blobLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public DeduplicatingStorageService(StorageProperties properties) {
+        super(properties);
+        if (properties.getBlobLocation().trim().isEmpty())
+            throw new StorageException("Blob store's location cannot be empty");
+        this.blobRoot = Paths.get(properties.getBlobLocation());
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        try {
+            Files.createDirectories(this.blobRoot);
+        } catch (IOException e) {
+            throw new StorageException("Could not initialize the blob store", e);
+        }
+    }
+
+    @Override
+    public Path uploadFile(Path path, MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return this.uploadFile(path, Objects.requireNonNull(file.getOriginalFilename()), inputStream);
+        } catch (IOException e) {
+            throw new StorageException("Failed to store a file", e);
+        }
+    }
+
+    @Override
+    public Path uploadFile(Path path, String name, InputStream inputStream) {
+        Path destination = this.resolveNewFile(path, name);
+
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(this.blobRoot, TEMPORARY_PREFIX, ".part");
+            MessageDigest digest = newDigest();
+            Files.copy(new DigestInputStream(this.storageQuotaService.limit(destination, inputStream), digest),
+                    temporary, StandardCopyOption.REPLACE_EXISTING);
+            return this.storeAndLink(temporary, HexFormat.of().formatHex(digest.digest()), destination);
+        } catch (IOException e) {
+            throw new StorageException("Failed to store a file", e);
+        } finally {
+            deleteQuietly(temporary);
+        }
+    }
+
+    @Override
+    public Path importFile(Path path, String name, Path source) {
+        return this.importFile(path, name, source, null);
+    }
+
+    @Override
+    public Path importFile(Path path, String name, Path source, MessageDigest contentDigest) {
+        Path destination = this.resolveNewFile(path, name);
+
+        try {
+            MessageDigest digest = contentDigest;
+            if (digest == null) {
+                digest = newDigest();
+                try (InputStream inputStream = new DigestInputStream(Files.newInputStream(source), digest)) {
+                    inputStream.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+            return this.storeAndLink(source, HexFormat.of().formatHex(digest.digest()), destination);
+        } catch (IOException e) {
+            throw new StorageException("Failed to store a file", e);
+        } finally {
+            deleteQuietly(source);
+        }
+    }
+
+    @Override
+    public Optional<MessageDigest> newContentDigest() {
+        return Optional.of(newDigest());
+    }
+
+    @Override
+    protected void copyRegularFile(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            super.copyRegularFile(source, target);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${storage.blob-cleanup-interval}")
+    public void collectGarbage() {
+        if (!Files.isDirectory(this.blobRoot))
+            return;
+
+        List<Path> candidates = new ArrayList<>();
+        try {
+            Files.walkFileTree(this.blobRoot, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path blob, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()
+                            && !blob.getFileName().toString().startsWith(TEMPORARY_PREFIX)
+                            && getLinkCount(blob) <= 1)
+                        candidates.add(blob);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path blob, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.error("Failed to collect unreferenced blobs: {}", e.getMessage());
+            return;
+        }
+
+        long collected = candidates.stream().filter(this::collect).count();
+        if (collected > 0)
+            logger.info("Collected {} unreferenced blob(s)", collected);
+    }
+
+    private boolean collect(Path blob) {
+        this.blobLock.writeLock().lock();
+        try {
+            return getLinkCount(blob) <= 1 && deleteQuietly(blob);
+        } finally {
+            this.blobLock.writeLock().unlock();
+        }
+    }
+
+    private Path storeAndLink(Path source, String hash, Path destination) throws IOException {
+        Path blob = this.blobRoot.resolve(hash.substring(0, 2)).resolve(hash);
+        Path link = destination.resolveSibling(TEMPORARY_PREFIX + UUID.randomUUID() + ".part");
+
+        this.blobLock.readLock().lock();
+        try {
+            Files.createDirectories(blob.getParent());
+            try {
+                Files.move(source, blob);
+            } catch (FileAlreadyExistsException ignored) {
+            }
+
+            try {
+                Files.createLink(link, blob);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                Files.copy(blob, link, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return this.moveIntoPlace(link, destination);
+        } finally {
+            this.blobLock.readLock().unlock();
+            deleteQuietly(link);
+        }
+    }
+
+    private static long getLinkCount(Path blob) {
+        try {
+            return ((Number) Files.getAttribute(blob, LINK_COUNT_ATTRIBUTE)).longValue();
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return file != null && Files.deleteIfExists(file);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new StorageException("SHA-256 is not available", e);
+        }
+    }
+}
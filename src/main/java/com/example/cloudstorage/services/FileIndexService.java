@@ -0,0 +1,432 @@
+package com.example.cloudstorage.services;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.models.FileMetadata;
+import com.example.cloudstorage.properties.StorageProperties;
+import com.example.cloudstorage.repository.FileMetadataRepository;
+
+@Service
+public class FileIndexService {
+    private static final Logger logger = LoggerFactory.getLogger(FileIndexService.class);
+    private static final String TEMPORARY_PREFIX = ".upload-";
+
+    private final Path root;
+    private final TransactionTemplate upsertTemplate;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ContentTypeService contentTypeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public FileIndexService(StorageProperties properties, PlatformTransactionManager transactionManager) {
+        this.root = Paths.get(properties.getLocation());
+        this.upsertTemplate = new TransactionTemplate(transactionManager);
+        this.upsertTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public List<FileMetadata> list(Path directory, Sort sort) {
+        return this.fileMetadataRepository.findAllByParent(this.toKey(directory), sort.and(Sort.by("id")));
+    }
+
+    public Window<FileMetadata> list(Path directory, Sort sort, ScrollPosition position, int limit) {
+        return this.fileMetadataRepository.findByParent(this.toKey(directory), position, sort, Limit.of(limit));
+    }
+
+    public static Sort buildSort(String key, boolean descending) {
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return switch (key) {
+            case "name", "lastModified" -> Sort.by(direction, key);
+            case "size" -> Sort.by(direction, "totalSize");
+            case "type" -> Sort.by(descending ? Sort.Direction.ASC : Sort.Direction.DESC, "directory")
+                    .and(Sort.by(direction, "lastModified"));
+            default -> throw new StorageInvalidRequestException("Invalid sort key for a directory listing", key);
+        };
+    }
+
+    public String encodeCursor(ScrollPosition position) {
+        try {
+            byte[] keys = this.objectMapper.writeValueAsBytes(((KeysetScrollPosition) position).getKeys());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(keys);
+        } catch (JsonProcessingException e) {
+            throw new StorageException("Failed to encode a listing cursor", e);
+        }
+    }
+
+    public ScrollPosition decodeCursor(String cursor, Sort sort) {
+        if (cursor == null || cursor.isEmpty())
+            return ScrollPosition.keyset();
+
+        Set<String> properties = new HashSet<>(Set.of("id"));
+        sort.forEach(order -> properties.add(order.getProperty()));
+        try {
+            Map<String, Object> keys = this.objectMapper.readValue(
+                    Base64.getUrlDecoder().decode(cursor), new TypeReference<LinkedHashMap<String, Object>>() {});
+            if (!keys.keySet().equals(properties))
+                throw new StorageInvalidRequestException("Cursor does not match the requested sort", cursor);
+
+            keys.replaceAll((property, value) -> switch (property) {
+                case "id" -> UUID.fromString((String) value);
+                case "directory" -> (Boolean) value;
+                case "totalSize", "lastModified" -> ((Number) value).longValue();
+                default -> (String) value;
+            });
+            return ScrollPosition.forward(keys);
+        } catch (IOException | IllegalArgumentException | ClassCastException | NullPointerException e) {
+            throw new StorageInvalidRequestException("Invalid cursor for a directory listing", cursor, e);
+        }
+    }
+
+    public FileMetadata load(Path file) {
+        return this.fileMetadataRepository.findByPath(this.toKey(file))
+                .orElseGet(() -> this.upsert(file));
+    }
+
+    public FileMetadata index(Path file) {
+        return this.index(file, null);
+    }
+
+    public FileMetadata index(Path file, String contentType) {
+        FileMetadata metadata = this.upsert(file, contentType);
+        this.indexParent(file);
+        return metadata;
+    }
+
+    public long size(Path file) {
+        return this.fileMetadataRepository.findByPath(this.toKey(file))
+                .map(FileMetadata::getTotalSize)
+                .orElse(0L);
+    }
+
+    public void remove(Path file) {
+        String key = this.toKey(file);
+        this.transactionTemplate.executeWithoutResult(status -> {
+            Optional<FileMetadata> removed = this.fileMetadataRepository.findByPath(key);
+            this.fileMetadataRepository.deleteTree(key, escapeLike(key) + "/%");
+            removed.ifPresent(metadata ->
+                    this.propagate(ancestors(key), -metadata.getTotalSize(), -metadata.getFileCount()));
+        });
+        this.indexParent(file);
+    }
+
+    public FileMetadata indexTree(Path file) {
+        String key = this.toKey(file);
+        List<FileMetadata> current = new ArrayList<>();
+        try {
+            Files.walkFileTree(file, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                    current.add(buildMetadata(toKey(dir), dir, attributes));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (!file.getFileName().toString().startsWith(TEMPORARY_PREFIX))
+                        current.add(buildMetadata(toKey(file), file, attributes));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new StorageException("Failed to index a file tree", e);
+        }
+        aggregate(current);
+
+        FileMetadata metadata = this.transactionTemplate.execute(status -> {
+            this.fileMetadataRepository.findByPath(key).ifPresent(replaced ->
+                    this.propagate(ancestors(key), -replaced.getTotalSize(), -replaced.getFileCount()));
+            this.fileMetadataRepository.deleteTree(key, escapeLike(key) + "/%");
+            this.fileMetadataRepository.saveAll(current);
+            this.propagate(ancestors(key), current.get(0).getTotalSize(), current.get(0).getFileCount());
+            return current.get(0);
+        });
+        this.indexParent(file);
+        return metadata;
+    }
+
+    public void move(Path source, Path target) {
+        String sourceKey = this.toKey(source);
+        String targetKey = this.toKey(target);
+        if (sourceKey.equals(targetKey))
+            return;
+
+        this.transactionTemplate.executeWithoutResult(status -> {
+            Optional<FileMetadata> moved = this.fileMetadataRepository.findByPath(sourceKey);
+            Optional<FileMetadata> replaced = this.fileMetadataRepository.findByPath(targetKey);
+            this.fileMetadataRepository.deleteTree(targetKey, escapeLike(targetKey) + "/%");
+            replaced.ifPresent(metadata ->
+                    this.propagate(ancestors(targetKey), -metadata.getTotalSize(), -metadata.getFileCount()));
+            this.fileMetadataRepository.moveDescendants(
+                    escapeLike(sourceKey) + "/%", targetKey, sourceKey.length() + 1);
+            this.fileMetadataRepository.move(sourceKey, targetKey, this.toKey(target.getParent()),
+                    target.getFileName().toString());
+
+            moved.ifPresent(metadata -> {
+                List<String> sourceAncestors = ancestors(sourceKey);
+                List<String> targetAncestors = ancestors(targetKey);
+                this.propagate(sourceAncestors.stream().filter(key -> !targetAncestors.contains(key)).toList(),
+                        -metadata.getTotalSize(), -metadata.getFileCount());
+                this.propagate(targetAncestors.stream().filter(key -> !sourceAncestors.contains(key)).toList(),
+                        metadata.getTotalSize(), metadata.getFileCount());
+            });
+        });
+
+        if (Files.isRegularFile(target))
+            this.upsert(target, this.contentTypeService.detect(target));
+        else if (this.fileMetadataRepository.findByPath(targetKey).isEmpty())
+            this.upsert(target);
+        this.indexParent(source);
+        this.indexParent(target);
+    }
+
+    @Scheduled(initialDelayString = "${storage.index-reconcile-interval}",
+            fixedDelayString = "${storage.index-reconcile-interval}")
+    public void reconcile() {
+        if (!Files.isDirectory(this.root))
+            return;
+
+        Changes changes = new Changes();
+        if (this.reconcile(this.root, changes) == null)
+            throw new StorageException("Failed to reconcile the storage index");
+        if (changes.added > 0 || changes.updated > 0 || changes.removed > 0)
+            logger.info("Reconciled storage index: {} added, {} updated, {} removed",
+                    changes.added, changes.updated, changes.removed);
+    }
+
+    private long[] reconcile(Path directory, Changes changes) {
+        Map<String, Path> files = new LinkedHashMap<>();
+        Map<String, BasicFileAttributes> attributes = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream)
+                if (!file.getFileName().toString().startsWith(TEMPORARY_PREFIX))
+                    try {
+                        attributes.put(this.toKey(file), Files.readAttributes(
+                                file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS));
+                        files.put(this.toKey(file), file);
+                    } catch (IOException ignored) {
+                    }
+        } catch (IOException e) {
+            logger.warn("Skipped reconciling {}: {}", directory, e.getMessage());
+            return null;
+        }
+
+        String key = this.toKey(directory);
+        List<FileMetadata> added = this.transactionTemplate.execute(status -> {
+            Map<String, FileMetadata> stale = new HashMap<>();
+            this.fileMetadataRepository.findAllLockedByParent(key, Sort.unsorted())
+                    .forEach(metadata -> stale.put(metadata.getPath(), metadata));
+
+            List<FileMetadata> missing = new ArrayList<>();
+            files.forEach((child, file) -> {
+                BasicFileAttributes attribute = attributes.get(child);
+                FileMetadata metadata = stale.remove(child);
+                if (metadata == null) {
+                    missing.add(buildMetadata(child, file, attribute));
+                    return;
+                }
+
+                boolean updated = metadata.update(attribute.isDirectory(), attribute.size(),
+                        attribute.lastModifiedTime().toMillis());
+                if (!metadata.getDirectory() && metadata.getContentType() == null) {
+                    metadata.setContentType(this.contentTypeService.detect(metadata.getName()));
+                    updated = true;
+                }
+                if (updated)
+                    changes.updated++;
+            });
+
+            for (FileMetadata metadata : stale.values())
+                if (!Files.exists(this.root.resolve(metadata.getPath()), LinkOption.NOFOLLOW_LINKS)) {
+                    this.fileMetadataRepository.deleteTree(metadata.getPath(), escapeLike(metadata.getPath()) + "/%");
+                    changes.removed++;
+                }
+            return missing;
+        });
+
+        for (FileMetadata metadata : added)
+            try {
+                this.fileMetadataRepository.save(metadata);
+                changes.added++;
+            } catch (DataIntegrityViolationException ignored) {
+            }
+
+        long[] aggregate = new long[2];
+        files.forEach((child, file) -> {
+            long[] totals = attributes.get(child).isDirectory()
+                    ? this.reconcile(file, changes)
+                    : new long[] {attributes.get(child).size(), 1};
+            if (totals == null)
+                totals = this.fileMetadataRepository.findByPath(child)
+                        .map(metadata -> new long[] {metadata.getTotalSize(), metadata.getFileCount()})
+                        .orElseGet(() -> new long[2]);
+            aggregate[0] += totals[0];
+            aggregate[1] += totals[1];
+        });
+
+        if (!directory.equals(this.root))
+            this.transactionTemplate.executeWithoutResult(status ->
+                    this.fileMetadataRepository.findLockedByPath(key).ifPresent(metadata -> {
+                        if (metadata.updateAggregates(aggregate[0], aggregate[1]))
+                            changes.updated++;
+                    }));
+        return aggregate;
+    }
+
+    private FileMetadata upsert(Path file) {
+        return this.upsert(file, null);
+    }
+
+    private FileMetadata upsert(Path file, String contentType) {
+        String key = this.toKey(file);
+        try {
+            return this.upsertTemplate.execute(status -> this.upsert(file, key, contentType));
+        } catch (DataIntegrityViolationException e) {
+            return this.upsertTemplate.execute(status -> this.upsert(file, key, contentType));
+        }
+    }
+
+    private FileMetadata upsert(Path file, String key, String contentType) {
+        Optional<FileMetadata> existing = this.fileMetadataRepository.findLockedByPath(key);
+        existing.ifPresent(this.entityManager::refresh);
+        BasicFileAttributes attributes = readAttributes(file);
+        long totalSize = existing.map(FileMetadata::getTotalSize).orElse(0L);
+        long fileCount = existing.map(FileMetadata::getFileCount).orElse(0L);
+
+        FileMetadata metadata = existing.orElseGet(() -> buildMetadata(key, Paths.get(key), attributes));
+        metadata.update(attributes.isDirectory(), attributes.size(), attributes.lastModifiedTime().toMillis());
+        if (metadata.getDirectory())
+            metadata.setContentType(null);
+        else if (contentType != null)
+            metadata.setContentType(contentType);
+        else if (metadata.getContentType() == null)
+            metadata.setContentType(this.contentTypeService.detect(metadata.getName()));
+        metadata = this.fileMetadataRepository.save(metadata);
+        this.propagate(ancestors(key), metadata.getTotalSize() - totalSize, metadata.getFileCount() - fileCount);
+        return metadata;
+    }
+
+    private void propagate(List<String> ancestors, long size, long count) {
+        if (!ancestors.isEmpty() && (size != 0 || count != 0))
+            this.fileMetadataRepository.updateAggregates(ancestors, size, count);
+    }
+
+    private void indexParent(Path file) {
+        Path parent = file.normalize().getParent();
+        if (parent != null && !parent.equals(this.root) && Files.exists(parent))
+            this.upsert(parent);
+    }
+
+    private String toKey(Path file) {
+        Path relative = this.root.relativize(file.normalize());
+        return relative.toString().replace(relative.getFileSystem().getSeparator(), "/");
+    }
+
+    private FileMetadata buildMetadata(String key, Path file, BasicFileAttributes attributes) {
+        int separator = key.lastIndexOf('/');
+        FileMetadata metadata = new FileMetadata(
+                key,
+                separator < 0 ? "" : key.substring(0, separator),
+                file.getFileName().toString(),
+                attributes.isDirectory(),
+                attributes.size(),
+                attributes.lastModifiedTime().toMillis()
+        );
+        if (!metadata.getDirectory())
+            metadata.setContentType(this.contentTypeService.detect(metadata.getName()));
+        return metadata;
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new StorageException("Failed to read file's attributes", e);
+        }
+    }
+
+    private static List<FileMetadata> aggregate(List<FileMetadata> tree) {
+        Map<String, long[]> aggregates = new HashMap<>();
+        for (FileMetadata metadata : tree)
+            if (!metadata.getDirectory())
+                for (String ancestor : ancestors(metadata.getPath())) {
+                    long[] aggregate = aggregates.computeIfAbsent(ancestor, key -> new long[2]);
+                    aggregate[0] += metadata.getSize();
+                    aggregate[1]++;
+                }
+
+        List<FileMetadata> changed = new ArrayList<>();
+        for (FileMetadata metadata : tree) {
+            long[] aggregate = metadata.getDirectory()
+                    ? aggregates.getOrDefault(metadata.getPath(), new long[2])
+                    : new long[] {metadata.getSize(), 1};
+            if (metadata.updateAggregates(aggregate[0], aggregate[1]))
+                changed.add(metadata);
+        }
+        return changed;
+    }
+
+    private static List<String> ancestors(String key) {
+        List<String> ancestors = new ArrayList<>();
+        for (int separator = key.indexOf('/'); separator >= 0; separator = key.indexOf('/', separator + 1))
+            ancestors.add(key.substring(0, separator));
+        return ancestors;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static class Changes {
+        private int added;
+        private int updated;
+        private int removed;
+    }
+}
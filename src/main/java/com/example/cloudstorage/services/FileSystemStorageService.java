@@ -2,33 +2,52 @@ package com.example.cloudstorage.services;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
 import java.util.Objects;
-import java.util.UUID;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Optional;
 import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import org.zeroturnaround.zip.ZipException;
-import org.zeroturnaround.zip.ZipUtil;
-
 import com.example.cloudstorage.exceptions.storage.StorageException;
 import com.example.cloudstorage.exceptions.storage.StorageFileNotFoundException;
 import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.models.FileMetadata;
 import com.example.cloudstorage.properties.StorageProperties;
 
 @SuppressWarnings("unused")
 @Service
+@ConditionalOnProperty(name = "storage.deduplication-enabled", havingValue = "false", matchIfMissing = true)
 public class FileSystemStorageService implements StorageService {
-    private final Path root;
+    protected static final String TEMPORARY_PREFIX = ".upload-";
+
+    protected final Path root;
+
+    @Autowired
+    protected FileIndexService fileIndexService;
+
+    @Autowired
+    protected StorageQuotaService storageQuotaService;
+
+    @Autowired
+    protected ContentTypeService contentTypeService;
 
     @Autowired
     public FileSystemStorageService(StorageProperties properties) {
@@ -41,55 +60,87 @@ public class FileSystemStorageService implements StorageService {
     public void init() {
         try {
             Files.createDirectories(this.root);
+            this.fileIndexService.reconcile();
+            this.storageQuotaService.reconcile();
         } catch (IOException e) {
             throw new StorageException("Could not initialize the storage", e);
         }
     }
 
     @Override
-    public Path loadFile(Path path) {
+    public Optional<Path> findFile(Path path) {
         Path file = this.root.resolve(path);
+        return Files.exists(file) ? Optional.of(file) : Optional.empty();
+    }
 
-        if (!Files.exists(file))
-            throw new StorageFileNotFoundException();
-        return file;
+    @Override
+    public Path loadFile(Path path) {
+        return this.findFile(path).orElseThrow(StorageFileNotFoundException::new);
     }
 
     @Override
-    public List<Path> loadDirectory(Path path) {
-        Path parent = this.loadFile(path);
-        if (!Files.isDirectory(parent))
-            throw new StorageInvalidRequestException(
-                    "Trying to load files from a location other that a directory", parent.getFileName().toString());
+    public List<FileMetadata> loadDirectory(Path path, Sort sort) {
+        return this.fileIndexService.list(this.loadParentDirectory(path), sort);
+    }
 
-        try (Stream<Path> files = Files.list(parent)) {
-            return files.collect(Collectors.toList());
-        } catch (IOException e) {
-            throw new StorageException("Failed to read stored files", e);
-        }
+    @Override
+    public Window<FileMetadata> loadDirectory(Path path, Sort sort, ScrollPosition position, int limit) {
+        return this.fileIndexService.list(this.loadParentDirectory(path), sort, position, limit);
     }
 
     @Override
     public Resource loadAsResource(Path path) {
         Path file = this.loadFile(path);
+        if (Files.isDirectory(file))
+            throw new StorageInvalidRequestException(
+                    "Trying to load a directory as a single file", file.getFileName().toString());
 
         try {
-            if (Files.isDirectory(file)) {
-                UUID uuid = UUID.randomUUID();
-                Path zipPath = file.getParent().resolve(uuid + ".zip");
-                try {
-                    ZipUtil.pack(file.toFile(), zipPath.toFile());
-                } catch (ZipException ignored) {
+            return new UrlResource(file.toUri());
+        } catch (MalformedURLException e) {
+            throw new StorageException("Could not read a file", e);
+        }
+    }
+
+    @Override
+    public void zipDirectory(Path path, OutputStream outputStream) {
+        this.zipDirectory(path, outputStream, bytes -> {});
+    }
+
+    @Override
+    public void zipDirectory(Path path, OutputStream outputStream, LongConsumer progress) {
+        Path directory = this.loadFile(path);
+        if (!Files.isDirectory(directory))
+            throw new StorageInvalidRequestException(
+                    "Trying to zip a location other than a directory", directory.getFileName().toString());
+
+        ZipOutputStream zipStream = new ZipOutputStream(outputStream);
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes)
+                        throws IOException {
+                    if (!dir.equals(directory)) {
+                        zipStream.putNextEntry(buildZipEntry(directory, dir, attributes));
+                        zipStream.closeEntry();
+                    }
+                    return FileVisitResult.CONTINUE;
                 }
-                return new ByteArrayResource(Files.readAllBytes(zipPath)) {
-                    @Override
-                    public String getFilename() {
-                        return zipPath.getFileName().toString();
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    if (!file.getFileName().toString().startsWith(TEMPORARY_PREFIX)) {
+                        zipStream.putNextEntry(buildZipEntry(directory, file, attributes));
+                        Files.copy(file, zipStream);
+                        zipStream.closeEntry();
+                        progress.accept(attributes.size());
                     }
-                };
-            } else return new UrlResource(file.toUri());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            zipStream.finish();
         } catch (IOException e) {
-            throw new StorageException("Could not read a file", e);
+            throw new StorageException("Could not zip a directory", e);
         }
     }
 
@@ -101,19 +152,65 @@ public class FileSystemStorageService implements StorageService {
             throw new StorageInvalidRequestException(
                     "Trying to upload a file to a location other than a directory", parent.getFileName().toString());
 
+        if (Files.isDirectory(destination))
+            throw new StorageInvalidRequestException(
+                    "Directory with name '" + file.getOriginalFilename() + "' already exists",
+                    file.getOriginalFilename());
+
+        long reserved = file.getSize() - sizeOf(destination);
+        this.storageQuotaService.reserve(destination, reserved);
         try {
-            InputStream inputStream = file.getInputStream();
-            Files.copy(inputStream, destination, StandardCopyOption.REPLACE_EXISTING);
+            file.transferTo(destination.toAbsolutePath().toFile());
+            this.fileIndexService.index(destination, this.contentTypeService.detect(destination));
             return destination;
-        } catch (DirectoryNotEmptyException e) {
-            throw new StorageInvalidRequestException(
-                    "Non-empty directory with name '" + file.getOriginalFilename() + "' already exists",
-                    file.getOriginalFilename(), e);
+        } catch (IOException e) {
+            this.storageQuotaService.release(destination, reserved);
+            throw new StorageException("Failed to store a file", e);
+        }
+    }
+
+    @Override
+    public Path uploadFile(Path path, String name, InputStream inputStream) {
+        Path destination = this.resolveNewFile(path, name);
+
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(destination.getParent(), TEMPORARY_PREFIX, ".part");
+            Files.copy(this.storageQuotaService.limit(destination, inputStream), temporary,
+                    StandardCopyOption.REPLACE_EXISTING);
+            return this.moveIntoPlace(temporary, destination);
+        } catch (IOException e) {
+            throw new StorageException("Failed to store a file", e);
+        } finally {
+            if (temporary != null)
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignored) {
+                }
+        }
+    }
+
+    @Override
+    public Path importFile(Path path, String name, Path source) {
+        Path destination = this.resolveNewFile(path, name);
+
+        try {
+            return this.moveIntoPlace(source, destination);
         } catch (IOException e) {
             throw new StorageException("Failed to store a file", e);
         }
     }
 
+    @Override
+    public Path importFile(Path path, String name, Path source, MessageDigest contentDigest) {
+        return this.importFile(path, name, source);
+    }
+
+    @Override
+    public Optional<MessageDigest> newContentDigest() {
+        return Optional.empty();
+    }
+
     @Override
     public Path createDirectory(Path path, String name) {
         Path parent = this.loadFile(path);
@@ -128,6 +225,7 @@ public class FileSystemStorageService implements StorageService {
         try {
             Path destination = parent.resolve(parsedName);
             Files.createDirectory(destination);
+            this.fileIndexService.index(destination);
             return destination;
         } catch (FileAlreadyExistsException e) {
             throw new StorageInvalidRequestException(
@@ -147,19 +245,78 @@ public class FileSystemStorageService implements StorageService {
         if (!Files.exists(target) || !Files.isDirectory(target) || target.equals(this.root))
             throw new StorageInvalidRequestException("Invalid target folder", target.getFileName().toString());
 
+        Path newFile = target.resolve(file.getFileName());
+        if (newFile.normalize().equals(file.normalize()))
+            return file;
+
+        long size = this.fileIndexService.size(file);
+        this.storageQuotaService.transfer(file, newFile, size);
         try {
-            Path newFile = target.resolve(file.getFileName());
+            long replaced = sizeOf(newFile);
             Files.move(file, newFile, StandardCopyOption.REPLACE_EXISTING);
+            this.storageQuotaService.release(newFile, replaced);
+            this.fileIndexService.move(file, newFile);
             return newFile;
         } catch (DirectoryNotEmptyException e) {
+            this.storageQuotaService.transfer(newFile, file, size);
             throw new StorageInvalidRequestException(
                     "Non-empty directory with name '" + file.getFileName() + "' already exists",
                     file.getFileName().toString(), e);
         } catch (IOException e) {
+            this.storageQuotaService.transfer(newFile, file, size);
             throw new StorageException("Could not move a file", e);
         }
     }
 
+    @Override
+    public Path copyFile(Path path, String newDirectory, LongConsumer progress) {
+        Path file = this.loadFile(path);
+        Path parent = file.getParent();
+        Path target = newDirectory.equals("...") ? parent.getParent() : parent.resolve(newDirectory);
+        if (!Files.exists(target) || !Files.isDirectory(target) || target.equals(this.root))
+            throw new StorageInvalidRequestException("Invalid target folder", target.getFileName().toString());
+
+        Path newFile = target.resolve(file.getFileName());
+        String name = file.getFileName().toString();
+        if (Files.exists(newFile, LinkOption.NOFOLLOW_LINKS))
+            throw new StorageInvalidRequestException("File with name '" + name + "' already exists", name);
+        if (newFile.normalize().startsWith(file.normalize()))
+            throw new StorageInvalidRequestException("Cannot copy a directory into itself", name);
+
+        long size = this.fileIndexService.size(file);
+        this.storageQuotaService.reserve(newFile, size);
+        try {
+            Files.walkFileTree(file, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes)
+                        throws IOException {
+                    Files.createDirectory(newFile.resolve(file.relativize(dir)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path source, BasicFileAttributes attributes) throws IOException {
+                    if (!source.getFileName().toString().startsWith(TEMPORARY_PREFIX)) {
+                        copyRegularFile(source, newFile.resolve(file.relativize(source)));
+                        progress.accept(attributes.size());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            this.fileIndexService.indexTree(newFile);
+            return newFile;
+        } catch (IOException | RuntimeException e) {
+            this.storageQuotaService.release(newFile, size);
+            try {
+                FileSystemUtils.deleteRecursively(newFile);
+            } catch (IOException ignored) {
+            }
+            if (e instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new StorageException("Could not copy a file", e);
+        }
+    }
+
     @Override
     public Path renameFile(Path path, String newName) {
         Path file = this.loadFile(path);
@@ -171,6 +328,7 @@ public class FileSystemStorageService implements StorageService {
         try {
             Path newFile = parent.resolve(parsedName);
             Files.move(file, newFile);
+            this.fileIndexService.move(file, newFile);
             return newFile;
         } catch (FileAlreadyExistsException e) {
             throw new StorageInvalidRequestException(
@@ -184,12 +342,121 @@ public class FileSystemStorageService implements StorageService {
 
     @Override
     public void deleteFile(Path path) {
+        this.deleteFile(path, bytes -> {});
+    }
+
+    @Override
+    public void deleteFile(Path path, LongConsumer progress) {
         Path file = this.loadFile(path);
 
+        long[] deleted = {0};
         try {
-            FileSystemUtils.deleteRecursively(file);
-        } catch (IOException e) {
+            Files.walkFileTree(file, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path source, BasicFileAttributes attributes) throws IOException {
+                    Files.delete(source);
+                    if (attributes.isRegularFile() && !source.getFileName().toString().startsWith(TEMPORARY_PREFIX)) {
+                        deleted[0] += attributes.size();
+                        progress.accept(attributes.size());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    if (e != null)
+                        throw e;
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            this.storageQuotaService.release(file, deleted[0]);
+            if (Files.exists(file, LinkOption.NOFOLLOW_LINKS))
+                this.fileIndexService.indexTree(file);
+            else
+                this.fileIndexService.remove(file);
+            if (e instanceof RuntimeException runtimeException)
+                throw runtimeException;
             throw new StorageException("Could not delete a file/directory", e);
         }
+        this.storageQuotaService.release(file, deleted[0]);
+        this.fileIndexService.remove(file);
+    }
+
+    protected Path loadParentDirectory(Path path) {
+        Path parent = this.loadFile(path);
+        if (!Files.isDirectory(parent))
+            throw new StorageInvalidRequestException(
+                    "Trying to load files from a location other that a directory", parent.getFileName().toString());
+        return parent;
+    }
+
+    @Override
+    public Path resolveNewFile(Path path, String name) {
+        Path parent = this.loadFile(path);
+        if (!Files.isDirectory(parent))
+            throw new StorageInvalidRequestException(
+                    "Trying to upload a file to a location other than a directory", parent.getFileName().toString());
+
+        String parsedName = name.replaceAll("\\.+$", "");
+        try {
+            if (parsedName.isEmpty() || !Paths.get(parsedName).getFileName().toString().equals(parsedName))
+                throw new StorageInvalidRequestException("Invalid name for a file", parsedName);
+            return parent.resolve(parsedName);
+        } catch (InvalidPathException e) {
+            throw new StorageInvalidRequestException("Invalid name for a file", parsedName, e);
+        }
+    }
+
+    protected Path moveIntoPlace(Path source, Path destination) throws IOException {
+        long reserved = Files.size(source) - sizeOf(destination);
+        this.storageQuotaService.reserve(destination, reserved);
+        try {
+            try {
+                Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            this.storageQuotaService.release(destination, reserved);
+            if (!(e instanceof FileSystemException) || !Files.isDirectory(destination))
+                throw e;
+
+            String name = destination.getFileName().toString();
+            throw new StorageInvalidRequestException(
+                    "Directory with name '" + name + "' already exists", name, e);
+        }
+        this.fileIndexService.index(destination, this.contentTypeService.detect(destination));
+        return destination;
+    }
+
+    protected void copyRegularFile(Path source, Path target) throws IOException {
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel output = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = input.size();
+            long position = 0;
+            while (position < size) {
+                long transferred = input.transferTo(position, size - position, output);
+                if (transferred <= 0)
+                    break;
+                position += transferred;
+            }
+        }
+    }
+
+    protected static long sizeOf(Path file) {
+        try {
+            return Files.isRegularFile(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static ZipEntry buildZipEntry(Path directory, Path file, BasicFileAttributes attributes) {
+        String name = directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+        ZipEntry entry = new ZipEntry(attributes.isDirectory() ? name + "/" : name);
+        entry.setLastModifiedTime(attributes.lastModifiedTime());
+        return entry;
     }
 }
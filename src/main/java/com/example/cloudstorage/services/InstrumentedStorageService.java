@@ -0,0 +1,178 @@
+package com.example.cloudstorage.services;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.cloudstorage.metrics.StorageMetrics;
+import com.example.cloudstorage.metrics.StorageMetrics.Direction;
+import com.example.cloudstorage.models.FileMetadata;
+
+@Primary
+@Service
+public class InstrumentedStorageService implements StorageService {
+    private final StorageService delegate;
+    private final ObservationRegistry observationRegistry;
+    private final StorageMetrics storageMetrics;
+
+    @Autowired
+    public InstrumentedStorageService(FileSystemStorageService delegate,
+                                      ObservationRegistry observationRegistry,
+                                      StorageMetrics storageMetrics) {
+        this.delegate = delegate;
+        this.observationRegistry = observationRegistry;
+        this.storageMetrics = storageMetrics;
+    }
+
+    @Override
+    public void init() {
+        this.delegate.init();
+    }
+
+    @Override
+    public Optional<Path> findFile(Path path) {
+        return this.observe("findFile", () -> this.delegate.findFile(path));
+    }
+
+    @Override
+    public Path loadFile(Path path) {
+        return this.observe("loadFile", () -> this.delegate.loadFile(path));
+    }
+
+    @Override
+    public List<FileMetadata> loadDirectory(Path path, Sort sort) {
+        return this.observe("loadDirectory", () -> this.delegate.loadDirectory(path, sort));
+    }
+
+    @Override
+    public Window<FileMetadata> loadDirectory(Path path, Sort sort, ScrollPosition position, int limit) {
+        return this.observe("loadDirectory", () -> this.delegate.loadDirectory(path, sort, position, limit));
+    }
+
+    @Override
+    public Resource loadAsResource(Path path) {
+        return this.observe("loadAsResource", () -> this.delegate.loadAsResource(path));
+    }
+
+    @Override
+    public void zipDirectory(Path path, OutputStream outputStream) {
+        this.transfer(Direction.OUTBOUND, () -> this.observe("zipDirectory", () -> {
+            this.delegate.zipDirectory(path, this.storageMetrics.countOutbound(outputStream));
+            return null;
+        }));
+    }
+
+    @Override
+    public void zipDirectory(Path path, OutputStream outputStream, LongConsumer progress) {
+        this.observe("zipDirectory", () -> {
+            this.delegate.zipDirectory(path, outputStream, progress);
+            return null;
+        });
+    }
+
+    @Override
+    public Path uploadFile(Path path, MultipartFile file) {
+        Path uploaded = this.transfer(Direction.INBOUND,
+                () -> this.observe("uploadFile", () -> this.delegate.uploadFile(path, file)));
+        this.storageMetrics.recordBytes(Direction.INBOUND, file.getSize());
+        return uploaded;
+    }
+
+    @Override
+    public Path uploadFile(Path path, String name, InputStream inputStream) {
+        Path uploaded = this.transfer(Direction.INBOUND,
+                () -> this.observe("uploadFile", () -> this.delegate.uploadFile(path, name, inputStream)));
+        this.storageMetrics.recordBytes(Direction.INBOUND, FileSystemStorageService.sizeOf(uploaded));
+        return uploaded;
+    }
+
+    @Override
+    public Path importFile(Path path, String name, Path source) {
+        Path imported = this.observe("importFile", () -> this.delegate.importFile(path, name, source));
+        this.storageMetrics.recordBytes(Direction.INBOUND, FileSystemStorageService.sizeOf(imported));
+        return imported;
+    }
+
+    @Override
+    public Path importFile(Path path, String name, Path source, MessageDigest contentDigest) {
+        Path imported = this.observe("importFile",
+                () -> this.delegate.importFile(path, name, source, contentDigest));
+        this.storageMetrics.recordBytes(Direction.INBOUND, FileSystemStorageService.sizeOf(imported));
+        return imported;
+    }
+
+    @Override
+    public Optional<MessageDigest> newContentDigest() {
+        return this.delegate.newContentDigest();
+    }
+
+    @Override
+    public Path resolveNewFile(Path path, String name) {
+        return this.delegate.resolveNewFile(path, name);
+    }
+
+    @Override
+    public Path createDirectory(Path path, String name) {
+        return this.observe("createDirectory", () -> this.delegate.createDirectory(path, name));
+    }
+
+    @Override
+    public Path moveFile(Path path, String destination) {
+        return this.observe("moveFile", () -> this.delegate.moveFile(path, destination));
+    }
+
+    @Override
+    public Path copyFile(Path path, String destination, LongConsumer progress) {
+        return this.observe("copyFile", () -> this.delegate.copyFile(path, destination, progress));
+    }
+
+    @Override
+    public Path renameFile(Path path, String newName) {
+        return this.observe("renameFile", () -> this.delegate.renameFile(path, newName));
+    }
+
+    @Override
+    public void deleteFile(Path path) {
+        this.deleteFile(path, bytes -> {});
+    }
+
+    @Override
+    public void deleteFile(Path path, LongConsumer progress) {
+        this.observe("deleteFile", () -> {
+            this.delegate.deleteFile(path, progress);
+            return null;
+        });
+    }
+
+    private <T> T observe(String operation, Supplier<T> action) {
+        return Observation.createNotStarted(StorageMetrics.OPERATION, this.observationRegistry)
+                .lowCardinalityKeyValue("operation", operation)
+                .observe(action);
+    }
+
+    private <T> T transfer(Direction direction, Supplier<T> action) {
+        this.storageMetrics.transferStarted(direction);
+        try {
+            return action.get();
+        } finally {
+            this.storageMetrics.transferFinished(direction);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.cloudstorage.services;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
+import com.example.cloudstorage.metrics.StorageMetrics;
+import com.example.cloudstorage.metrics.StorageMetrics.Direction;
+import com.example.cloudstorage.models.FileMetadata;
+import com.example.cloudstorage.properties.StorageProperties;
+
+@Service
+public class ReactiveStorageService {
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+    private final int bufferSize;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private FileIndexService fileIndexService;
+
+    @Autowired
+    private StorageMetrics storageMetrics;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    public ReactiveStorageService(StorageProperties properties) {
+        this.bufferSize = (int) properties.getReactiveBufferSize().toBytes();
+    }
+
+    public Mono<Path> loadFile(Path path) {
+        return offload(() -> this.storageService.loadAsResource(path).getFile().toPath());
+    }
+
+    public Mono<String> loadContentType(Path path) {
+        return offload(() -> this.fileIndexService.load(this.storageService.loadFile(path)))
+                .mapNotNull(FileMetadata::getContentType)
+                .defaultIfEmpty(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    public Mono<BasicFileAttributes> readAttributes(Path file) {
+        return offload(() -> Files.readAttributes(file, BasicFileAttributes.class));
+    }
+
+    public Flux<DataBuffer> readFile(Path file, long position, long count) {
+        Flux<DataBuffer> content = DataBufferUtils.readAsynchronousFileChannel(
+                () -> AsynchronousFileChannel.open(file, StandardOpenOption.READ),
+                position, this.bufferFactory, this.bufferSize);
+
+        return DataBufferUtils.takeUntilByteCount(content, count)
+                .doOnNext(buffer -> this.storageMetrics.recordBytes(Direction.OUTBOUND, buffer.readableByteCount()))
+                .doFirst(() -> this.storageMetrics.transferStarted(Direction.OUTBOUND))
+                .doFinally(signal -> this.storageMetrics.transferFinished(Direction.OUTBOUND));
+    }
+
+    public Mono<FileMetadata> uploadFile(Path path, String name, Flux<DataBuffer> content) {
+        return offload(() -> this.createTemporaryFile(path))
+                .flatMap(temporary -> {
+                    MessageDigest digest = this.storageService.newContentDigest().orElse(null);
+                    return offload(() -> this.storageQuotaService.remaining(temporary.getParent(), name))
+                            .flatMap(remaining -> DataBufferUtils.write(digest(limit(content, remaining, name), digest),
+                                    temporary, StandardOpenOption.WRITE))
+                            .then(offload(() -> this.importFile(path, name, temporary, digest)))
+                            .doFinally(signal -> deleteTemporaryFile(temporary));
+                })
+                .doFirst(() -> this.storageMetrics.transferStarted(Direction.INBOUND))
+                .doFinally(signal -> this.storageMetrics.transferFinished(Direction.INBOUND));
+    }
+
+    private FileMetadata importFile(Path path, String name, Path temporary, MessageDigest digest) {
+        return this.fileIndexService.load(this.storageService.importFile(path, name, temporary, digest));
+    }
+
+    private Path createTemporaryFile(Path path) throws IOException {
+        Path parent = this.storageService.loadFile(path);
+        if (!Files.isDirectory(parent))
+            throw new StorageInvalidRequestException(
+                    "Trying to upload a file to a location other than a directory", parent.getFileName().toString());
+
+        return Files.createTempFile(parent, FileSystemStorageService.TEMPORARY_PREFIX, ".part");
+    }
+
+    private static Flux<DataBuffer> limit(Flux<DataBuffer> content, long remaining, String name) {
+        AtomicLong count = new AtomicLong();
+        return content.handle((buffer, sink) -> {
+            if (count.addAndGet(buffer.readableByteCount()) <= remaining) {
+                sink.next(buffer);
+                return;
+            }
+            DataBufferUtils.release(buffer);
+            sink.error(new StorageQuotaExceededException(name));
+        });
+    }
+
+    private static Flux<DataBuffer> digest(Flux<DataBuffer> content, MessageDigest digest) {
+        if (digest == null)
+            return content;
+        return content.doOnNext(buffer -> {
+            try (DataBuffer.ByteBufferIterator buffers = buffer.readableByteBuffers()) {
+                buffers.forEachRemaining(digest::update);
+            }
+        });
+    }
+
+    private static <T> Mono<T> offload(Callable<T> task) {
+        return Mono.fromCallable(task)
+                .subscribeOn(Schedulers.boundedElastic())
+                .publishOn(Schedulers.parallel());
+    }
+
+    private static void deleteTemporaryFile(Path temporary) {
+        try {
+            Files.deleteIfExists(temporary);
+        } catch (IOException ignored) {
+        }
+    }
+}
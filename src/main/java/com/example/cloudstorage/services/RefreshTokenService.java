@@ -1,25 +1,35 @@
 package com.example.cloudstorage.services;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.example.cloudstorage.exceptions.refresh.RefreshTokenExpiredException;
 import com.example.cloudstorage.models.RefreshToken;
-import com.example.cloudstorage.models.User;
 import com.example.cloudstorage.repository.RefreshTokenRepository;
 import com.example.cloudstorage.repository.UserRepository;
 
 @Service
 public class RefreshTokenService {
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
     @Value("${cloud-storage.app.jwt-refresh-expiration-ms}")
     private Long jwtRefreshExpirationMs;
 
+    @Value("${cloud-storage.app.jwt-refresh-cleanup-batch-size}")
+    private int cleanupBatchSize;
+
     @Autowired
     private RefreshTokenRepository refreshTokenRepository;
 
@@ -30,12 +40,20 @@ public class RefreshTokenService {
         return this.refreshTokenRepository.findByToken(token);
     }
 
-    public RefreshToken createRefreshToken(Long userId) {
-        User user = this.userRepository.findById(userId).orElseThrow();
+    public String rotateRefreshToken(Long userId) {
         String token = UUID.randomUUID().toString();
         Instant expiryDate = Instant.now().plusMillis(this.jwtRefreshExpirationMs);
 
-        return this.refreshTokenRepository.save(new RefreshToken(user, token, expiryDate));
+        if (this.refreshTokenRepository.rotate(userId, token, expiryDate) > 0)
+            return token;
+        try {
+            this.refreshTokenRepository.save(
+                    new RefreshToken(this.userRepository.getReferenceById(userId), token, expiryDate));
+        } catch (DataIntegrityViolationException e) {
+            this.refreshTokenRepository.rotate(userId, token, expiryDate);
+        }
+
+        return token;
     }
 
     public RefreshToken verifyExpiration(RefreshToken token) {
@@ -47,9 +65,20 @@ public class RefreshTokenService {
         return token;
     }
 
-    @Transactional
-    public void deleteUserById(Long userId) {
-        User user = this.userRepository.findById(userId).orElseThrow();
-        this.refreshTokenRepository.deleteByUser(user);
+    @Scheduled(fixedDelayString = "${cloud-storage.app.jwt-refresh-cleanup-interval}")
+    public void purgeExpiredTokens() {
+        Instant now = Instant.now();
+        PageRequest batch = PageRequest.ofSize(this.cleanupBatchSize);
+
+        int purged = 0;
+        List<Long> ids;
+        do {
+            ids = this.refreshTokenRepository.findExpiredIds(now, batch);
+            if (!ids.isEmpty())
+                purged += this.refreshTokenRepository.deleteAllByIds(ids);
+        } while (ids.size() == this.cleanupBatchSize);
+
+        if (purged > 0)
+            logger.info("Purged {} expired refresh token(s)", purged);
     }
 }
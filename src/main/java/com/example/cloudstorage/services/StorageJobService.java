@@ -0,0 +1,374 @@
+package com.example.cloudstorage.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import jakarta.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.exceptions.storage.StorageFileNotFoundException;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.exceptions.storage.StorageJobCancelledException;
+import com.example.cloudstorage.exceptions.storage.StorageJobLimitException;
+import com.example.cloudstorage.exceptions.storage.StorageJobNotFoundException;
+import com.example.cloudstorage.models.StorageJob;
+import com.example.cloudstorage.properties.StorageProperties;
+import com.example.cloudstorage.repository.StorageJobRepository;
+import com.example.cloudstorage.repository.UserRepository;
+
+@Service
+public class StorageJobService {
+    private static final Logger logger = LoggerFactory.getLogger(StorageJobService.class);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ExecutorService executor;
+    private final Path jobRoot;
+    private final Duration retention;
+    private final int queueLimit;
+    private final Map<Long, Deque<String>> pending = new LinkedHashMap<>();
+    private final Map<Long, Integer> active = new HashMap<>();
+    private final Map<Long, Long> served = new HashMap<>();
+    private final Map<Long, Integer> submitted = new HashMap<>();
+    private long ticks;
+    private final Map<String, Progress> running = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    @Autowired
+    private StorageJobRepository storageJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private FileIndexService fileIndexService;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    public StorageJobService(StorageProperties properties) {
+        if (properties.getJobLocation().trim().isEmpty())
+            throw new StorageException("Job output location cannot be empty");
+        this.executor = Executors.newFixedThreadPool(
+                properties.getJobThreads(), new CustomizableThreadFactory("storage-job-"));
+        this.jobRoot = Paths.get(properties.getJobLocation());
+        this.retention = properties.getJobRetention();
+        this.queueLimit = properties.getJobQueueLimit();
+    }
+
+    public StorageJob copyFiles(Long userId, List<Path> paths, String destination) {
+        return this.submit(userId, StorageJob.Type.COPY, paths, destination);
+    }
+
+    public StorageJob moveFiles(Long userId, List<Path> paths, String destination) {
+        return this.submit(userId, StorageJob.Type.MOVE, paths, destination);
+    }
+
+    public StorageJob deleteFiles(Long userId, List<Path> paths) {
+        return this.submit(userId, StorageJob.Type.DELETE, paths, null);
+    }
+
+    public StorageJob zipDirectory(Long userId, Path path) {
+        Path directory = this.storageService.loadFile(path);
+        if (!Files.isDirectory(directory))
+            throw new StorageInvalidRequestException(
+                    "Trying to zip a location other than a directory", directory.getFileName().toString());
+
+        return this.submit(userId, StorageJob.Type.ZIP, List.of(path), null);
+    }
+
+    public StorageJob loadJob(Long userId, String id) {
+        return this.storageJobRepository.findById(id)
+                .filter(job -> job.getUser().getId().equals(userId))
+                .orElseThrow(StorageJobNotFoundException::new);
+    }
+
+    public long getProcessedBytes(StorageJob job) {
+        Progress progress = this.running.get(job.getId());
+        return progress != null ? progress.bytes.get() : job.getProcessedBytes();
+    }
+
+    public StorageJob cancelJob(Long userId, String id) {
+        StorageJob job = this.loadJob(userId, id);
+        if (this.storageJobRepository.updateStatus(
+                id, StorageJob.Status.QUEUED, StorageJob.Status.CANCELLED, Instant.now()) == 0) {
+            Progress progress = this.running.get(id);
+            if (progress != null)
+                progress.cancelled = true;
+        }
+        return this.loadJob(userId, job.getId());
+    }
+
+    public Path loadArchive(StorageJob job) {
+        if (job.getType() != StorageJob.Type.ZIP || job.getStatus() != StorageJob.Status.COMPLETED)
+            throw new StorageInvalidRequestException("Job has not produced an archive", job.getId());
+        return this.getArchive(job);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeJobs() {
+        List<StorageJob> jobs = this.storageJobRepository.findAllByStatusInOrderByCreatedDate(
+                List.of(StorageJob.Status.QUEUED, StorageJob.Status.RUNNING));
+        for (StorageJob job : jobs) {
+            if (job.getStatus() == StorageJob.Status.RUNNING && !job.getType().isRestartable()) {
+                job.fail("Interrupted by a server restart", job.getProcessedBytes());
+                this.storageJobRepository.save(job);
+                continue;
+            }
+            job.requeue();
+            this.acquireSlot(job.getUser().getId(), false);
+            this.enqueue(this.storageJobRepository.save(job));
+        }
+        if (!jobs.isEmpty())
+            logger.info("Resumed {} storage job(s) after a restart", jobs.size());
+    }
+
+    @Scheduled(fixedDelayString = "${storage.job-cleanup-interval}")
+    public void purgeFinishedJobs() {
+        List<StorageJob> jobs = new ArrayList<>();
+        for (StorageJob job : this.storageJobRepository.findAllByFinishedDateBefore(
+                Instant.now().minus(this.retention)))
+            try {
+                Path archive = this.getArchive(job);
+                long size = FileSystemStorageService.sizeOf(archive);
+                if (Files.deleteIfExists(archive))
+                    this.storageQuotaService.release(archive, size);
+                jobs.add(job);
+            } catch (IOException e) {
+                logger.warn("Could not delete the archive of storage job {}: {}", job.getId(), e.getMessage());
+            }
+        this.storageJobRepository.deleteAll(jobs);
+        if (!jobs.isEmpty())
+            logger.info("Purged {} finished storage job(s)", jobs.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.stopping = true;
+        this.running.values().forEach(progress -> progress.interrupted = true);
+        this.executor.shutdownNow();
+        try {
+            if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT.toSeconds(), TimeUnit.SECONDS))
+                logger.warn("Storage jobs did not stop within {}", SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private StorageJob submit(Long userId, StorageJob.Type type, List<Path> paths, String destination) {
+        long totalBytes = paths.stream()
+                .map(this.storageService::loadFile)
+                .mapToLong(this.fileIndexService::size)
+                .sum();
+
+        this.acquireSlot(userId, true);
+        StorageJob job;
+        try {
+            job = this.storageJobRepository.save(new StorageJob(
+                    UUID.randomUUID().toString(),
+                    this.userRepository.getReferenceById(userId),
+                    type,
+                    paths,
+                    destination,
+                    totalBytes
+            ));
+        } catch (RuntimeException e) {
+            this.releaseSlot(userId);
+            throw e;
+        }
+        this.enqueue(job);
+        return job;
+    }
+
+    private void acquireSlot(Long user, boolean limited) {
+        synchronized (this.pending) {
+            int count = this.submitted.getOrDefault(user, 0);
+            if (limited && count >= this.queueLimit)
+                throw new StorageJobLimitException();
+            this.submitted.put(user, count + 1);
+        }
+    }
+
+    private void releaseSlot(Long user) {
+        synchronized (this.pending) {
+            this.submitted.computeIfPresent(user, (key, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private void enqueue(StorageJob job) {
+        synchronized (this.pending) {
+            this.pending.computeIfAbsent(job.getUser().getId(), user -> new ArrayDeque<>()).add(job.getId());
+        }
+        this.executor.execute(this::runNext);
+    }
+
+    private Map.Entry<Long, String> pollNext() {
+        synchronized (this.pending) {
+            Comparator<Long> fairness = Comparator
+                    .comparing((Long user) -> this.active.getOrDefault(user, 0))
+                    .thenComparing(user -> this.served.getOrDefault(user, 0L));
+            Long next = this.pending.keySet().stream().min(fairness).orElse(null);
+            if (next == null)
+                return null;
+
+            Deque<String> jobs = this.pending.get(next);
+            String id = jobs.poll();
+            if (jobs.isEmpty())
+                this.pending.remove(next);
+            this.active.merge(next, 1, Integer::sum);
+            this.served.put(next, ++this.ticks);
+            return Map.entry(next, id);
+        }
+    }
+
+    private void release(Long user) {
+        synchronized (this.pending) {
+            this.active.computeIfPresent(user, (key, count) -> count > 1 ? count - 1 : null);
+            if (!this.active.containsKey(user) && !this.pending.containsKey(user))
+                this.served.remove(user);
+        }
+        this.releaseSlot(user);
+    }
+
+    private void runNext() {
+        Map.Entry<Long, String> next = this.pollNext();
+        if (next == null)
+            return;
+        try {
+            this.run(next.getValue());
+        } finally {
+            this.release(next.getKey());
+        }
+    }
+
+    private void run(String id) {
+        Progress progress = new Progress();
+        progress.interrupted = this.stopping;
+        this.running.put(id, progress);
+        StorageJob job;
+        try {
+            if (this.storageJobRepository.updateStatus(
+                    id, StorageJob.Status.QUEUED, StorageJob.Status.RUNNING, null) == 0)
+                return;
+
+            job = this.storageJobRepository.findById(id).orElseThrow(StorageJobNotFoundException::new);
+            try {
+                job.complete(this.execute(job, progress), progress.bytes.get());
+            } catch (StorageJobCancelledException e) {
+                if (progress.cancelled)
+                    job.cancel(progress.bytes.get());
+                else if (job.getType().isRestartable())
+                    job.requeue();
+                else
+                    job.fail("Interrupted by a server shutdown", progress.bytes.get());
+            } catch (RuntimeException e) {
+                logger.error("Storage job {} failed: {}", id, e.getMessage());
+                job.fail(e.getMessage(), progress.bytes.get());
+            }
+        } finally {
+            this.running.remove(id);
+        }
+
+        this.storageJobRepository.save(job);
+    }
+
+    private List<Path> execute(StorageJob job, Progress progress) {
+        LongConsumer tracker = bytes -> {
+            if (progress.cancelled || progress.interrupted)
+                throw new StorageJobCancelledException();
+            progress.bytes.addAndGet(bytes);
+        };
+
+        List<Path> results = new ArrayList<>();
+        for (Path path : job.getSourcePaths()) {
+            tracker.accept(0);
+            switch (job.getType()) {
+                case COPY -> results.add(this.storageService.copyFile(path, job.getDestination(), tracker));
+                case MOVE -> {
+                    Path file = this.storageService.moveFile(path, job.getDestination());
+                    tracker.accept(this.fileIndexService.size(file));
+                    results.add(file);
+                }
+                case DELETE -> {
+                    try {
+                        this.storageService.deleteFile(path, tracker);
+                    } catch (StorageFileNotFoundException ignored) {
+                    }
+                }
+                case ZIP -> this.zipDirectory(job, path, tracker);
+            }
+        }
+        return results;
+    }
+
+    private void zipDirectory(StorageJob job, Path path, LongConsumer tracker) {
+        Path archive = this.getArchive(job);
+        Path temporary = archive.resolveSibling(FileSystemStorageService.TEMPORARY_PREFIX + archive.getFileName());
+        try {
+            Files.createDirectories(archive.getParent());
+            try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+                this.storageService.zipDirectory(path, outputStream, tracker);
+            }
+            long size = Files.size(temporary);
+            this.storageQuotaService.reserve(archive, size);
+            try {
+                Files.move(temporary, archive, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                this.storageQuotaService.release(archive, size);
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+            }
+            if (e instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new StorageException("Could not zip a directory", e);
+        }
+    }
+
+    private Path getArchive(StorageJob job) {
+        return this.jobRoot.resolve(job.getUser().getUsername()).resolve(job.getId() + ".zip");
+    }
+
+    private static class Progress {
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile boolean interrupted;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.cloudstorage.services;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.properties.StorageProperties;
+import com.example.cloudstorage.repository.UploadSessionRepository;
+import com.example.cloudstorage.repository.UserRepository;
+
+@Service
+public class StorageQuotaService {
+    private static final Logger logger = LoggerFactory.getLogger(StorageQuotaService.class);
+
+    private final Path root;
+    private final Path jobRoot;
+    private final long defaultQuota;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    public StorageQuotaService(StorageProperties properties) {
+        this.root = Paths.get(properties.getLocation());
+        this.jobRoot = Paths.get(properties.getJobLocation());
+        this.defaultQuota = properties.getDefaultQuota().toBytes();
+    }
+
+    public User loadUser(Long userId) {
+        return this.userRepository.findById(userId)
+                .orElseThrow(() -> new StorageException("Could not find a storage owner"));
+    }
+
+    public long getQuota(User user) {
+        return user.getQuotaBytes() != null ? user.getQuotaBytes() : this.defaultQuota;
+    }
+
+    public void checkQuota(Path file, long bytes) {
+        String username = this.getOwner(file);
+        if (username == null || bytes <= 0)
+            return;
+
+        this.userRepository.findByUsername(username)
+                .filter(user -> user.getUsedBytes() + bytes > this.getQuota(user))
+                .ifPresent(user -> {
+                    throw new StorageQuotaExceededException(file.getFileName().toString());
+                });
+    }
+
+    public long remaining(Path file) {
+        String username = this.getOwner(file);
+        if (username == null)
+            return Long.MAX_VALUE;
+
+        return this.userRepository.findByUsername(username)
+                .map(user -> this.getQuota(user) - user.getUsedBytes() + FileSystemStorageService.sizeOf(file))
+                .orElse(Long.MAX_VALUE);
+    }
+
+    public long remaining(Path directory, String name) {
+        try {
+            Path target = directory.resolve(name).normalize();
+            return this.remaining(directory.normalize().equals(target.getParent()) ? target : directory);
+        } catch (InvalidPathException e) {
+            return this.remaining(directory);
+        }
+    }
+
+    public InputStream limit(Path file, InputStream inputStream) {
+        long remaining = this.remaining(file);
+        return new FilterInputStream(inputStream) {
+            private long count;
+
+            @Override
+            public int read() throws IOException {
+                int b = this.in.read();
+                if (b >= 0)
+                    this.count(1);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = this.in.read(b, off, len);
+                if (read > 0)
+                    this.count(read);
+                return read;
+            }
+
+            private void count(long bytes) {
+                if ((this.count += bytes) > remaining)
+                    throw new StorageQuotaExceededException(file.getFileName().toString());
+            }
+        };
+    }
+
+    public void reserve(Path file, long bytes) {
+        String username = this.getOwner(file);
+        if (username == null || bytes == 0)
+            return;
+
+        if (bytes < 0)
+            this.userRepository.releaseStorage(username, -bytes);
+        else if (this.userRepository.reserveStorage(username, bytes, this.defaultQuota) == 0)
+            throw new StorageQuotaExceededException(file.getFileName().toString());
+    }
+
+    public void release(Path file, long bytes) {
+        this.reserve(file, -bytes);
+    }
+
+    public void transfer(Path source, Path target, long bytes) {
+        String owner = this.getOwner(source);
+        if (owner == null || owner.equals(this.getOwner(target)))
+            return;
+
+        this.reserve(target, bytes);
+        this.release(source, bytes);
+    }
+
+    @Scheduled(initialDelayString = "${storage.quota-reconcile-interval}",
+            fixedDelayString = "${storage.quota-reconcile-interval}")
+    public void reconcile() {
+        int corrected = 0;
+        for (User user : this.userRepository.findAll()) {
+            Path directory = this.root.resolve(user.getUsername());
+            if (!Files.isDirectory(directory))
+                continue;
+
+            long usedBytes = measure(directory) + measure(this.jobRoot.resolve(user.getUsername()))
+                    + this.uploadSessionRepository.sumSizeByUserId(user.getId());
+            if (usedBytes != user.getUsedBytes()
+                    && this.userRepository.reconcileStorage(user.getId(), user.getUsedBytes(), usedBytes) > 0)
+                corrected++;
+        }
+        if (corrected > 0)
+            logger.info("Reconciled storage usage of {} user(s)", corrected);
+    }
+
+    private String getOwner(Path file) {
+        Path normalized = file.normalize();
+        Path relative = (normalized.startsWith(this.jobRoot) ? this.jobRoot : this.root).relativize(normalized);
+        String owner = relative.getName(0).toString();
+        return owner.isEmpty() || owner.equals("..") ? null : owner;
+    }
+
+    private static long measure(Path directory) {
+        long[] size = {0};
+        if (!Files.isDirectory(directory))
+            return 0;
+
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()
+                            && !file.getFileName().toString().startsWith(FileSystemStorageService.TEMPORARY_PREFIX))
+                        size[0] += attributes.size();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new StorageException("Failed to measure storage usage", e);
+        }
+        return size[0];
+    }
+}
@@ -1,27 +1,59 @@
 package com.example.cloudstorage.services;
 
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+
+import com.example.cloudstorage.models.FileMetadata;
 
 public interface StorageService {
     void init();
 
+    Optional<Path> findFile(Path path);
+
     Path loadFile(Path path);
 
-    List<Path> loadDirectory(Path path);
+    List<FileMetadata> loadDirectory(Path path, Sort sort);
+
+    Window<FileMetadata> loadDirectory(Path path, Sort sort, ScrollPosition position, int limit);
 
     Resource loadAsResource(Path path);
 
+    void zipDirectory(Path path, OutputStream outputStream);
+
+    void zipDirectory(Path path, OutputStream outputStream, LongConsumer progress);
+
     Path uploadFile(Path path, MultipartFile file);
 
+    Path uploadFile(Path path, String name, InputStream inputStream);
+
+    Path importFile(Path path, String name, Path source);
+
+    Path importFile(Path path, String name, Path source, MessageDigest contentDigest);
+
+    Optional<MessageDigest> newContentDigest();
+
+    Path resolveNewFile(Path path, String name);
+
     Path createDirectory(Path path, String name);
 
     Path moveFile(Path path, String destination);
 
+    Path copyFile(Path path, String destination, LongConsumer progress);
+
     Path renameFile(Path path, String newName);
 
     void deleteFile(Path path);
+
+    void deleteFile(Path path, LongConsumer progress);
 }
@@ -0,0 +1,272 @@
+package com.example.cloudstorage.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
+import com.example.cloudstorage.exceptions.storage.StorageUploadLimitException;
+import com.example.cloudstorage.exceptions.storage.StorageUploadNotFoundException;
+import com.example.cloudstorage.models.UploadChunk;
+import com.example.cloudstorage.models.UploadSession;
+import com.example.cloudstorage.properties.StorageProperties;
+import com.example.cloudstorage.repository.UploadChunkRepository;
+import com.example.cloudstorage.repository.UploadSessionRepository;
+import com.example.cloudstorage.repository.UserRepository;
+
+@Service
+public class UploadSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+    private static final ChunkDigest CLAIMED = new ChunkDigest(null, -1);
+    private static final ChunkDigest INVALID = new ChunkDigest(null, -1);
+
+    private final Path root;
+    private final Path uploadRoot;
+    private final int chunkSize;
+    private final Duration expiration;
+    private final int sessionLimit;
+    private final Map<String, ChunkDigest> digests = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private UploadChunkRepository uploadChunkRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public UploadSessionService(StorageProperties properties) {
+        if (properties.getUploadLocation().trim().isEmpty())
+            throw new StorageException("Upload staging location cannot be empty");
+        this.root = Paths.get(properties.getLocation());
+        this.uploadRoot = Paths.get(properties.getUploadLocation());
+        this.chunkSize = (int) properties.getUploadChunkSize().toBytes();
+        this.expiration = properties.getUploadExpiration();
+        this.sessionLimit = properties.getUploadSessionLimit();
+    }
+
+    public UploadSession createSession(Long userId, Path path, String name, Long size) {
+        Path destination = this.storageService.resolveNewFile(path, name);
+        String fileName = destination.getFileName().toString();
+        if (Files.isDirectory(destination))
+            throw new StorageInvalidRequestException(
+                    "Directory with name '" + fileName + "' already exists", fileName);
+        if (size < 0)
+            throw new StorageInvalidRequestException("Invalid size for an upload", fileName);
+        if (this.uploadSessionRepository.countByUserId(userId) >= this.sessionLimit)
+            throw new StorageUploadLimitException();
+
+        Path parent = destination.getParent();
+        String id = UUID.randomUUID().toString();
+        this.storageQuotaService.reserve(parent, size);
+        try {
+            Files.createDirectories(this.uploadRoot);
+            try (RandomAccessFile file = new RandomAccessFile(this.getPartFile(id).toFile(), "rw")) {
+                file.setLength(size);
+            }
+
+            UploadSession session = this.uploadSessionRepository.save(new UploadSession(
+                    id,
+                    this.userRepository.getReferenceById(userId),
+                    path.toString(),
+                    fileName,
+                    size,
+                    this.chunkSize,
+                    Instant.now().plus(this.expiration)
+            ));
+            this.storageService.newContentDigest()
+                    .ifPresent(digest -> this.digests.put(id, new ChunkDigest(digest, 0)));
+            return session;
+        } catch (IOException | RuntimeException e) {
+            this.storageQuotaService.release(parent, size);
+            try {
+                Files.deleteIfExists(this.getPartFile(id));
+            } catch (IOException ignored) {
+            }
+            if (e instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new StorageException("Could not allocate space for an upload", e);
+        }
+    }
+
+    public UploadSession loadSession(Long userId, String id) {
+        return this.uploadSessionRepository.findById(id)
+                .filter(session -> session.getUser().getId().equals(userId))
+                .filter(session -> session.getExpiryDate().isAfter(Instant.now()))
+                .orElseThrow(StorageUploadNotFoundException::new);
+    }
+
+    public List<Integer> getReceivedChunks(UploadSession session) {
+        return this.uploadChunkRepository.findChunkIndexesBySession(session);
+    }
+
+    public void writeChunk(UploadSession session, Long offset, InputStream inputStream) {
+        if (offset < 0 || offset >= session.getSize() || offset % session.getChunkSize() != 0)
+            throw new StorageInvalidRequestException("Chunk offset is not aligned to the chunk size", session.getName());
+
+        int chunkIndex = (int) (offset / session.getChunkSize());
+        long length = Math.min(session.getChunkSize(), session.getSize() - offset);
+        MessageDigest digest = this.claimDigest(session.getId(), offset);
+        ChunkDigest next = INVALID;
+        try (FileChannel channel = FileChannel.open(this.getPartFile(session.getId()), StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            long written = 0;
+            while (written < length) {
+                int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, length - written));
+                if (read < 0)
+                    break;
+                if (digest != null)
+                    digest.update(buffer, 0, read);
+                ByteBuffer source = ByteBuffer.wrap(buffer, 0, read);
+                while (source.hasRemaining())
+                    written += channel.write(source, offset + written);
+            }
+
+            if (written != length || inputStream.read() != -1)
+                throw new StorageInvalidRequestException(
+                        "Chunk length does not match the expected " + length + " bytes", session.getName());
+            next = new ChunkDigest(digest, offset + length);
+        } catch (NoSuchFileException e) {
+            throw new StorageUploadNotFoundException(e);
+        } catch (IOException e) {
+            throw new StorageException("Failed to store a chunk", e);
+        } finally {
+            if (digest != null)
+                this.releaseDigest(session.getId(), next);
+        }
+
+        if (this.uploadChunkRepository.existsBySessionAndChunkIndex(session, chunkIndex))
+            return;
+        try {
+            this.uploadChunkRepository.save(new UploadChunk(session, chunkIndex));
+        } catch (DataIntegrityViolationException ignored) {
+        }
+    }
+
+    public Path completeSession(UploadSession session) {
+        if (this.uploadChunkRepository.countBySession(session) != session.getChunkCount())
+            throw new StorageInvalidRequestException("Upload is missing one or more chunks", session.getName());
+
+        Path parent = this.root.resolve(session.getPath());
+        ChunkDigest digest = this.digests.remove(session.getId());
+        this.storageQuotaService.release(parent, session.getSize());
+        Path file;
+        try {
+            file = this.storageService.importFile(Paths.get(session.getPath()), session.getName(),
+                    this.getPartFile(session.getId()),
+                    digest != null && digest.position() == session.getSize() ? digest.digest() : null);
+        } catch (RuntimeException e) {
+            try {
+                this.storageQuotaService.reserve(parent, session.getSize());
+            } catch (StorageQuotaExceededException quotaExceeded) {
+                this.removeSession(session);
+            }
+            throw e;
+        }
+        this.removeSession(session);
+        return file;
+    }
+
+    public void cancelSession(UploadSession session) {
+        if (this.removeSession(session))
+            this.releaseSession(session);
+    }
+
+    @Scheduled(fixedDelayString = "${storage.upload-cleanup-interval}")
+    public void purgeExpiredSessions() {
+        int purged = 0;
+        for (UploadSession session : this.uploadSessionRepository.findAllByExpiryDateBefore(Instant.now()))
+            try {
+                if (this.removeSession(session)) {
+                    this.releaseSession(session);
+                    purged++;
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Could not purge upload session {}: {}", session.getId(), e.getMessage());
+            }
+        if (purged > 0)
+            logger.info("Purged {} expired upload session(s)", purged);
+    }
+
+    private boolean removeSession(UploadSession session) {
+        this.digests.remove(session.getId());
+        Boolean removed = this.transactionTemplate.execute(status -> {
+            this.uploadChunkRepository.deleteBySession(session);
+            if (this.uploadSessionRepository.deleteSessionById(session.getId()) == 0)
+                return false;
+
+            try {
+                Files.deleteIfExists(this.getPartFile(session.getId()));
+            } catch (IOException e) {
+                throw new StorageException("Could not delete an upload's staging file", e);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(removed);
+    }
+
+    private void releaseSession(UploadSession session) {
+        this.storageQuotaService.release(this.root.resolve(session.getPath()), session.getSize());
+    }
+
+    private Path getPartFile(String id) {
+        return this.uploadRoot.resolve(id + ".part");
+    }
+
+    private MessageDigest claimDigest(String id, long offset) {
+        ChunkDigest[] claimed = new ChunkDigest[1];
+        this.digests.computeIfPresent(id, (key, state) -> {
+            if (state.digest() == null || offset < state.position())
+                return INVALID;
+            if (offset > state.position())
+                return state;
+            claimed[0] = state;
+            return CLAIMED;
+        });
+        return claimed[0] != null ? claimed[0].digest() : null;
+    }
+
+    private void releaseDigest(String id, ChunkDigest next) {
+        this.digests.computeIfPresent(id, (key, state) -> state == CLAIMED ? next : state);
+    }
+
+    private record ChunkDigest(MessageDigest digest, long position) {
+    }
+}
@@ -1,23 +1,72 @@
 package com.example.cloudstorage.services;
 
+import java.time.Duration;
+
+import jakarta.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import com.example.cloudstorage.models.User;
 import com.example.cloudstorage.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     @Autowired
     UserRepository userRepository;
 
+    @Value("${cloud-storage.app.user-cache-size}")
+    private int userCacheSize;
+
+    @Value("${cloud-storage.app.user-cache-ttl-ms}")
+    private long userCacheTtlMs;
+
+    private Cache<String, UserDetailsImpl> users;
+
+    @PostConstruct
+    public void init() {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(this.userCacheSize)
+                .expireAfterWrite(Duration.ofMillis(this.userCacheTtlMs))
+                .build();
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetailsImpl userDetails = this.findUser(username);
+        this.users.put(username, userDetails);
+
+        return userDetails;
+    }
+
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        return this.users.get(username, this::findUser);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserDetailsImpl userDetails = (UserDetailsImpl) user;
+        this.userRepository.updatePassword(userDetails.getUsername(), newPassword);
+        this.evictUser(userDetails.getUsername());
+
+        return new UserDetailsImpl(userDetails.getId(), userDetails.getUsername(), userDetails.getEmail(), newPassword);
+    }
+
+    public void evictUser(String username) {
+        this.users.invalidate(username);
+    }
+
+    private UserDetailsImpl findUser(String username) {
         User user = this.userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
 
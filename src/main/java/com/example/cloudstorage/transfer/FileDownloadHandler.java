@@ -0,0 +1,254 @@
+package com.example.cloudstorage.transfer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.cloudstorage.exceptions.storage.StorageException;
+import com.example.cloudstorage.metrics.StorageMetrics;
+import com.example.cloudstorage.metrics.StorageMetrics.Direction;
+import com.example.cloudstorage.properties.StorageProperties;
+
+@Component
+public class FileDownloadHandler {
+    private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+    private final boolean sendfileEnabled;
+    private final long sendfileThreshold;
+    private final StorageMetrics storageMetrics;
+
+    @Autowired
+    public FileDownloadHandler(StorageProperties properties, StorageMetrics storageMetrics) {
+        this.sendfileEnabled = properties.isSendfileEnabled();
+        this.sendfileThreshold = properties.getSendfileThreshold().toBytes();
+        this.storageMetrics = storageMetrics;
+    }
+
+    public ResponseEntity<StreamingResponseBody> download(Path file,
+                                                          HttpServletRequest request,
+                                                          HttpHeaders responseHeaders) {
+        HttpHeaders requestHeaders = new ServletServerHttpRequest(request).getHeaders();
+        BasicFileAttributes attributes = readAttributes(file);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String eTag = buildETag(length, lastModified);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.addAll(responseHeaders);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.set(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        headers.setETag(eTag);
+        headers.setLastModified(lastModified);
+
+        if (isNotModified(requestHeaders, eTag, lastModified)) {
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            headers.remove(HttpHeaders.CONTENT_DISPOSITION);
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .headers(headers)
+                    .build();
+        }
+
+        List<HttpRange> ranges = parseRanges(requestHeaders, eTag, lastModified);
+        if (ranges.isEmpty()) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .headers(headers)
+                    .contentLength(length);
+
+            return this.useSendfile(request, file, 0, length)
+                    ? builder.build()
+                    : builder.body(this.track(outputStream -> transferRegion(file, 0, length, outputStream)));
+        }
+
+        List<Region> regions = toRegions(ranges, length);
+        if (regions.isEmpty()) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .headers(headers)
+                    .build();
+        }
+
+        if (regions.size() == 1) {
+            Region region = regions.get(0);
+            headers.set(HttpHeaders.CONTENT_RANGE, region.contentRange(length));
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
+                    .contentLength(region.count());
+
+            return this.useSendfile(request, file, region.start(), region.count())
+                    ? builder.build()
+                    : builder.body(this.track(
+                            outputStream -> transferRegion(file, region.start(), region.count(), outputStream)));
+        }
+
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        headers.set(HttpHeaders.CONTENT_TYPE, "multipart/byteranges; boundary=" + boundary);
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .headers(headers)
+                .body(this.track(outputStream -> {
+                    for (Region region : regions) {
+                        outputStream.write(region.partHeader(boundary, contentType, length));
+                        transferRegion(file, region.start(), region.count(), outputStream);
+                    }
+                    outputStream.write(closingBoundary(boundary));
+                }));
+    }
+
+    private StreamingResponseBody track(StreamingResponseBody body) {
+        return outputStream -> {
+            this.storageMetrics.transferStarted(Direction.OUTBOUND);
+            try {
+                body.writeTo(this.storageMetrics.countOutbound(outputStream));
+            } finally {
+                this.storageMetrics.transferFinished(Direction.OUTBOUND);
+            }
+        };
+    }
+
+    private boolean useSendfile(HttpServletRequest request, Path file, long start, long count) {
+        if (!this.sendfileEnabled || count < this.sendfileThreshold
+                || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE)))
+            return false;
+
+        try {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, start + count);
+            this.storageMetrics.recordBytes(Direction.OUTBOUND, count);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            request.removeAttribute(SENDFILE_FILENAME_ATTRIBUTE);
+            return false;
+        }
+    }
+
+    public static List<HttpRange> parseRanges(HttpHeaders requestHeaders, String eTag, long lastModified) {
+        if (!requestHeaders.containsKey(HttpHeaders.RANGE) || !matchesIfRange(requestHeaders, eTag, lastModified))
+            return List.of();
+
+        try {
+            return requestHeaders.getRange();
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private static boolean matchesIfRange(HttpHeaders requestHeaders, String eTag, long lastModified) {
+        String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+        if (ifRange == null)
+            return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/"))
+            return ifRange.equals(eTag);
+
+        try {
+            return requestHeaders.getFirstDate(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static boolean isNotModified(HttpHeaders requestHeaders, String eTag, long lastModified) {
+        try {
+            List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+            if (!ifNoneMatch.isEmpty())
+                return ifNoneMatch.stream()
+                        .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                        .anyMatch(tag -> tag.equals("*") || tag.equals(eTag));
+
+            long ifModifiedSince = requestHeaders.getIfModifiedSince();
+            return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public static List<Region> toRegions(List<HttpRange> ranges, long length) {
+        List<Region> regions = new ArrayList<>();
+        long total = 0;
+        for (HttpRange range : ranges) {
+            try {
+                long start = range.getRangeStart(length);
+                long end = range.getRangeEnd(length);
+                if (start >= length || end < start)
+                    continue;
+                regions.add(new Region(start, end - start + 1));
+                total += end - start + 1;
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+
+        return total > length ? List.of() : regions;
+    }
+
+    private static void transferRegion(Path file, long start, long count, OutputStream outputStream)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                byteBuffer.clear().limit((int) Math.min(buffer.length, remaining));
+                int read = channel.read(byteBuffer, position);
+                if (read <= 0)
+                    break;
+                outputStream.write(buffer, 0, read);
+                position += read;
+                remaining -= read;
+            }
+        }
+    }
+
+    private static BasicFileAttributes readAttributes(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new StorageException("Failed to read file's attributes", e);
+        }
+    }
+
+    public static String buildETag(long length, long lastModified) {
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    public static byte[] closingBoundary(String boundary) {
+        return ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public record Region(long start, long count) {
+        public String contentRange(long length) {
+            return "bytes " + this.start + "-" + (this.start + this.count - 1) + "/" + length;
+        }
+
+        public byte[] partHeader(String boundary, String contentType, long length) {
+            return ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + this.contentRange(length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.cloudstorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.cloudstorage.jwt.JwtUtils;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.properties.StorageProperties;
+import com.example.cloudstorage.repository.UserRepository;
+import com.example.cloudstorage.services.StorageService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public abstract class StorageTestSupport {
+    private static final Path DIRECTORY = createDirectory();
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    protected StorageService storageService;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected StorageProperties storageProperties;
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:h2:mem:cloud-storage-test;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        registry.add("storage.location", () -> DIRECTORY.resolve("root").toString());
+        registry.add("storage.upload-location", () -> DIRECTORY.resolve("uploads").toString());
+        registry.add("storage.blob-location", () -> DIRECTORY.resolve("blobs").toString());
+        registry.add("storage.job-location", () -> DIRECTORY.resolve("jobs").toString());
+    }
+
+    protected User createUser() {
+        String username = "user" + USERS.incrementAndGet();
+        User user = this.userRepository.save(new User(username, username + "@example.com", "password"));
+        this.storageService.createDirectory(Paths.get(""), username);
+        return user;
+    }
+
+    protected String bearer(User user) {
+        return "Bearer " + this.jwtUtils.generateTokenFromUsername(user.getUsername());
+    }
+
+    protected Path root() {
+        return Paths.get(this.storageProperties.getLocation());
+    }
+
+    protected Path upload(Path directory, String name, int size) {
+        return this.storageService.uploadFile(directory, name, new ByteArrayInputStream(new byte[size]));
+    }
+
+    private static Path createDirectory() {
+        try {
+            Path target = Paths.get("target");
+            Files.createDirectories(target);
+            return Files.createTempDirectory(target, "test-storage-").toAbsolutePath();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.cloudstorage.advice;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.autoconfigure.web.ErrorProperties;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StorageAdviceTest extends StorageTestSupport {
+    @Test
+    void omitsTheTraceByDefault() throws Exception {
+        User user = this.createUser();
+
+        for (String query : new String[]{"", "&trace", "&trace=true"})
+            this.mockMvc.perform(get("/api/storage/file/?src=missing.bin" + query)
+                            .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.status").value(404))
+                    .andExpect(jsonPath("$.message").exists())
+                    .andExpect(jsonPath("$.trace").doesNotExist());
+    }
+
+    @Test
+    void takesTheStatusFromTheException() throws Exception {
+        User user = this.createUser();
+
+        for (String uri : new String[]{"/api/storage/upload/missing", "/api/storage/job/missing"})
+            this.mockMvc.perform(get(uri)
+                            .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                    .andExpect(status().isNotFound())
+                    .andExpect(jsonPath("$.status").value(404))
+                    .andExpect(jsonPath("$.error").value("Not Found"));
+    }
+
+    @Test
+    void includesTheTraceOnlyWhenAskedFor() {
+        ErrorTraceResolver never = resolver(ErrorProperties.IncludeAttribute.NEVER);
+        ErrorTraceResolver onParam = resolver(ErrorProperties.IncludeAttribute.ON_PARAM);
+        ErrorTraceResolver always = resolver(ErrorProperties.IncludeAttribute.ALWAYS);
+
+        assertThat(never.includeTrace(request(""))).isFalse();
+        assertThat(onParam.includeTrace(new MockHttpServletRequest())).isFalse();
+        assertThat(onParam.includeTrace(request("false"))).isFalse();
+        assertThat(onParam.includeTrace(request(""))).isTrue();
+        assertThat(onParam.includeTrace(request("true"))).isTrue();
+        assertThat(always.includeTrace(new MockHttpServletRequest())).isTrue();
+    }
+
+    private static ErrorTraceResolver resolver(ErrorProperties.IncludeAttribute includeStacktrace) {
+        ServerProperties properties = new ServerProperties();
+        properties.getError().setIncludeStacktrace(includeStacktrace);
+        return new ErrorTraceResolver(properties);
+    }
+
+    private static MockHttpServletRequest request(String trace) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("trace", trace);
+        return request;
+    }
+}
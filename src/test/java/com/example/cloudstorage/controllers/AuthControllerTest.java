@@ -0,0 +1,116 @@
+package com.example.cloudstorage.controllers;
+
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "cloud-storage.app.argon2-memory-kb=4096",
+        "cloud-storage.app.argon2-iterations=1",
+        "cloud-storage.app.argon2-parallelism=1"
+})
+class AuthControllerTest extends StorageTestSupport {
+    private static final AtomicInteger ACCOUNTS = new AtomicInteger();
+    private static final String PASSWORD = "secret1";
+
+    @Test
+    void signupHashesWithTheConfiguredArgon2Cost() throws Exception {
+        String username = this.signup();
+
+        assertThat(this.loadUser(username).getPassword()).startsWith("{argon2}$argon2id$v=19$m=4096,t=1,p=1$");
+    }
+
+    @Test
+    void signupRejectsATakenUsername() throws Exception {
+        String username = this.signup();
+
+        this.mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(signupJson(username, "other-" + username + "@example.com")))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void loginReturnsTokensAndCreatesTheHomeDirectory() throws Exception {
+        String username = this.signup();
+
+        this.dispatch(this.login(username, PASSWORD))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(username))
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+        assertThat(this.storageService.findFile(Paths.get(username))).isPresent();
+    }
+
+    @Test
+    void loginWithBadCredentialsIsUnauthorized() throws Exception {
+        String username = this.signup();
+
+        this.dispatch(this.login(username, "wrong-password"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.status").value(401));
+        this.dispatch(this.login("missing-" + username, PASSWORD))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void loginUpgradesLegacyBcryptHashes() throws Exception {
+        String username = "legacy" + ACCOUNTS.incrementAndGet();
+        String legacyHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        this.userRepository.save(new User(username, username + "@example.com", legacyHash));
+
+        this.dispatch(this.login(username, PASSWORD)).andExpect(status().isOk());
+
+        assertThat(this.loadUser(username).getPassword()).startsWith("{argon2}");
+        this.dispatch(this.login(username, PASSWORD)).andExpect(status().isOk());
+        this.dispatch(this.login(username, "wrong-password")).andExpect(status().isUnauthorized());
+    }
+
+    private String signup() throws Exception {
+        String username = "account" + ACCOUNTS.incrementAndGet();
+        MvcResult result = this.mockMvc.perform(post("/api/auth/signup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(signupJson(username, username + "@example.com")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        this.dispatch(result).andExpect(status().isOk());
+        return username;
+    }
+
+    private MvcResult login(String username, String password) throws Exception {
+        return this.mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private ResultActions dispatch(MvcResult result) throws Exception {
+        return this.mockMvc.perform(asyncDispatch(result));
+    }
+
+    private User loadUser(String username) {
+        return this.userRepository.findByUsername(username).orElseThrow();
+    }
+
+    private static String signupJson(String username, String email) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.cloudstorage.controllers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ReactiveStorageHandlerTest extends StorageTestSupport {
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @LocalServerPort
+    private int port;
+
+    private WebTestClient webTestClient;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        this.webTestClient = WebTestClient.bindToServer().baseUrl("http://localhost:" + this.port).build();
+        this.user = this.createUser();
+        this.storageService.uploadFile(Paths.get(this.user.getUsername()), "file.txt",
+                new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void fullRead() {
+        this.download("file.txt")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(CONTENT.length())
+                .expectHeader().contentType(MediaType.TEXT_PLAIN)
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody(String.class).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void rangeRead() {
+        this.download("file.txt")
+                .header(HttpHeaders.RANGE, "bytes=10-19")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 10-19/36")
+                .expectBody(String.class).isEqualTo("abcdefghij");
+    }
+
+    @Test
+    void multipleRanges() {
+        String body = this.download("file.txt")
+                .header(HttpHeaders.RANGE, "bytes=0-2,10-12")
+                .exchange()
+                .expectStatus().isEqualTo(206)
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("multipart/byteranges"))
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(body).contains(
+                "Content-Type: text/plain\r\nContent-Range: bytes 0-2/36\r\n\r\n012",
+                "Content-Range: bytes 10-12/36\r\n\r\nabc");
+    }
+
+    @Test
+    void staleIfRangeReturnsTheWholeFile() {
+        this.download("file.txt")
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, "\"stale\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_RANGE)
+                .expectBody(String.class).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void notModifiedForMatchingETag() {
+        String eTag = this.download("file.txt")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        this.download("file.txt")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void missingFileIsNotFound() {
+        this.download("missing.txt")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.status").isEqualTo(404);
+    }
+
+    private WebTestClient.RequestHeadersSpec<?> download(String source) {
+        return this.webTestClient.get()
+                .uri("/api/reactive/storage/load/?src={source}", source)
+                .header(HttpHeaders.AUTHORIZATION, this.bearer(this.user));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.cloudstorage.controllers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.jayway.jsonpath.JsonPath;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.FileMetadata;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.repository.FileMetadataRepository;
+import com.example.cloudstorage.services.StorageQuotaService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StorageControllerTest extends StorageTestSupport {
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Test
+    void batchUploadOverTheQuotaIsInsufficientStorage() throws Exception {
+        User user = this.createUser();
+        long quota = this.storageQuotaService.getQuota(user);
+        this.storageQuotaService.reserve(this.root().resolve(user.getUsername()).resolve("reserved.bin"), quota - 50);
+
+        this.mockMvc.perform(multipart("/api/storage/files/")
+                        .file(new MockMultipartFile("files", "small.bin", null, new byte[10]))
+                        .file(new MockMultipartFile("files", "large.bin", null, new byte[100]))
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isInsufficientStorage())
+                .andExpect(jsonPath("$.status").value(507))
+                .andExpect(jsonPath("$.results[0].name").value("small.bin"))
+                .andExpect(jsonPath("$.results[0].file.name").value("small.bin"))
+                .andExpect(jsonPath("$.results[1].name").value("large.bin"))
+                .andExpect(jsonPath("$.results[1].error").isNotEmpty());
+
+        assertThat(this.storageService.findFile(Paths.get(user.getUsername(), "small.bin"))).isPresent();
+        assertThat(this.storageService.findFile(Paths.get(user.getUsername(), "large.bin"))).isEmpty();
+    }
+
+    @Test
+    void batchUploadWithADuplicateNameIsBadRequest() throws Exception {
+        User user = this.createUser();
+
+        this.mockMvc.perform(multipart("/api/storage/files/")
+                        .file(new MockMultipartFile("files", "same.bin", null, new byte[10]))
+                        .file(new MockMultipartFile("files", "same.bin", null, new byte[20]))
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.results[0].file.size").value(10))
+                .andExpect(jsonPath("$.results[1].error").isNotEmpty());
+    }
+
+    @Test
+    void streamedUploadStoresTheRequestBody() throws Exception {
+        User user = this.createUser();
+
+        this.mockMvc.perform(post("/api/storage/stream/")
+                        .param("name", "streamed.bin")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[64])
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("streamed.bin"))
+                .andExpect(jsonPath("$.size").value(64));
+
+        assertThat(this.root().resolve(user.getUsername()).resolve("streamed.bin")).hasSize(64);
+    }
+
+    @Test
+    void streamedUploadOverTheQuotaIsRejectedBeforeReading() throws Exception {
+        User user = this.createUser();
+        long quota = this.storageQuotaService.getQuota(user);
+        this.storageQuotaService.reserve(this.root().resolve(user.getUsername()).resolve("reserved.bin"), quota - 50);
+
+        this.mockMvc.perform(post("/api/storage/stream/")
+                        .param("name", "large.bin")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[100])
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isInsufficientStorage());
+
+        assertThat(this.storageService.findFile(Paths.get(user.getUsername(), "large.bin"))).isEmpty();
+    }
+
+    @Test
+    void unchangedListingsAreNotModified() throws Exception {
+        User user = this.createUser();
+        this.upload(Paths.get(user.getUsername()), "file.bin", 10);
+
+        String[] uris = {"/api/storage/files/", "/api/storage/page/", "/api/storage/file/?src=file.bin"};
+        for (String uri : uris) {
+            String eTag = this.eTag(user, uri);
+
+            this.mockMvc.perform(get(uri)
+                            .header(HttpHeaders.AUTHORIZATION, this.bearer(user))
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        }
+    }
+
+    @Test
+    void listingETagChangesAfterAnUploadOrRename() throws Exception {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        this.upload(directory, "first.bin", 10);
+        String initial = this.eTag(user, "/api/storage/files/");
+
+        this.upload(directory, "second.bin", 20);
+        String uploaded = this.mockMvc.perform(get("/api/storage/files/")
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user))
+                        .header(HttpHeaders.IF_NONE_MATCH, initial))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(uploaded).isNotEqualTo(initial);
+
+        this.rename(user, "first.bin", "renamed.bin");
+        String renamed = this.mockMvc.perform(get("/api/storage/files/")
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user))
+                        .header(HttpHeaders.IF_NONE_MATCH, uploaded))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(renamed).isNotIn(initial, uploaded);
+    }
+
+    @Test
+    void fileIdsAreStableAcrossRequestsAndRenames() throws Exception {
+        User user = this.createUser();
+        this.upload(Paths.get(user.getUsername()), "file.bin", 10);
+
+        String id = this.fileId(user, "file.bin");
+        assertThat(this.fileId(user, "file.bin")).isEqualTo(id);
+
+        MvcResult renamed = this.rename(user, "file.bin", "renamed.bin");
+        assertThat(JsonPath.<String>read(renamed.getResponse().getContentAsString(), "$.id")).isEqualTo(id);
+        assertThat(this.fileId(user, "renamed.bin")).isEqualTo(id);
+        this.mockMvc.perform(get("/api/storage/files/")
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(jsonPath("$[0].name").value("renamed.bin"))
+                .andExpect(jsonPath("$[0].id").value(id));
+    }
+
+    @Test
+    void downloadUsesThePersistedContentType() throws Exception {
+        User user = this.createUser();
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 0x0d, 'I', 'H', 'D', 'R'};
+        this.storageService.uploadFile(Paths.get(user.getUsername()), "image.bin", new ByteArrayInputStream(png));
+
+        this.mockMvc.perform(get("/api/storage/load/")
+                        .param("src", "image.bin")
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"));
+
+        FileMetadata metadata = this.fileMetadataRepository.findByPath(user.getUsername() + "/image.bin")
+                .orElseThrow();
+        metadata.setContentType("application/x-stored");
+        this.fileMetadataRepository.save(metadata);
+
+        this.mockMvc.perform(get("/api/storage/load/")
+                        .param("src", "image.bin")
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/x-stored"));
+    }
+
+    private String eTag(User user, String uri) throws Exception {
+        String eTag = this.mockMvc.perform(get(uri)
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotBlank();
+        return eTag;
+    }
+
+    private String fileId(User user, String name) throws Exception {
+        MvcResult result = this.mockMvc.perform(get("/api/storage/file/")
+                        .param("src", name)
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isOk())
+                .andReturn();
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+    }
+
+    private MvcResult rename(User user, String source, String name) throws Exception {
+        return this.mockMvc.perform(patch("/api/storage/file/")
+                        .param("src", source)
+                        .param("name", name)
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+}
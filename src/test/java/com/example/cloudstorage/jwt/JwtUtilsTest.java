@@ -0,0 +1,58 @@
+package com.example.cloudstorage.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import io.jsonwebtoken.Claims;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = "cloud-storage.app.jwt-expiration-ms=3000")
+class JwtUtilsTest extends StorageTestSupport {
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Test
+    void reusesVerifiedClaims() {
+        String token = this.jwtUtils.generateTokenFromUsername("cached");
+
+        Claims claims = this.jwtUtils.parseJwtToken(token).orElseThrow();
+
+        assertThat(claims.getSubject()).isEqualTo("cached");
+        assertThat(this.jwtUtils.parseJwtToken(token)).containsSame(claims);
+    }
+
+    @Test
+    void rejectsACachedTokenOnceItExpires() throws Exception {
+        User user = this.createUser();
+        String bearer = this.bearer(user);
+        Claims claims = this.jwtUtils.parseJwtToken(bearer.substring("Bearer ".length())).orElseThrow();
+
+        this.mockMvc.perform(get("/api/storage/files/").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        Thread.sleep(Math.max(claims.getExpiration().getTime() - System.currentTimeMillis(), 0) + 100);
+
+        assertThat(this.jwtUtils.parseJwtToken(bearer.substring("Bearer ".length()))).isEmpty();
+        this.mockMvc.perform(get("/api/storage/files/").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void rejectsATamperedToken() {
+        String token = this.jwtUtils.generateTokenFromUsername("tampered");
+        this.jwtUtils.parseJwtToken(token).orElseThrow();
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(this.jwtUtils.parseJwtToken(tampered)).isEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.cloudstorage.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StorageMetricsTest extends StorageTestSupport {
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void registersMetersUpFront() {
+        for (String direction : new String[]{"inbound", "outbound"}) {
+            assertThat(this.meterRegistry.find("storage.transfer.bytes").tag("direction", direction).counter())
+                    .isNotNull();
+            assertThat(this.meterRegistry.find("storage.transfers.active").tag("direction", direction).gauge())
+                    .isNotNull();
+        }
+        assertThat(this.meterRegistry.find("storage.batch.upload").timer()).isNotNull();
+        assertThat(this.meterRegistry.find("storage.batch.upload.size").summary()).isNotNull();
+    }
+
+    @Test
+    void countsUploadedBytesAndObservesTheOperation() {
+        User user = this.createUser();
+        double inbound = this.transferredBytes("inbound");
+        long uploads = this.operations("uploadFile");
+
+        this.upload(Paths.get(user.getUsername()), "file.bin", 100);
+
+        assertThat(this.transferredBytes("inbound")).isEqualTo(inbound + 100);
+        assertThat(this.operations("uploadFile")).isEqualTo(uploads + 1);
+        assertThat(this.meterRegistry.get("storage.transfers.active").tag("direction", "inbound").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void countsArchivedBytesAsOutbound() {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        this.upload(directory, "file.bin", 100);
+        double outbound = this.transferredBytes("outbound");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.storageService.zipDirectory(directory, outputStream);
+
+        assertThat(this.transferredBytes("outbound")).isEqualTo(outbound + outputStream.size());
+        assertThat(this.operations("zipDirectory")).isPositive();
+    }
+
+    @Test
+    void countsErrorsByExceptionAndStatus() throws Exception {
+        User user = this.createUser();
+        double errors = this.errors("StorageFileNotFoundException", "404");
+
+        this.mockMvc.perform(get("/api/storage/file/?src=missing.bin")
+                        .header(HttpHeaders.AUTHORIZATION, this.bearer(user)))
+                .andExpect(status().isNotFound());
+
+        assertThat(this.errors("StorageFileNotFoundException", "404")).isEqualTo(errors + 1);
+    }
+
+    private double transferredBytes(String direction) {
+        return this.meterRegistry.get("storage.transfer.bytes").tag("direction", direction).counter().count();
+    }
+
+    private long operations(String operation) {
+        Timer timer = this.meterRegistry.find(StorageMetrics.OPERATION)
+                .tag("operation", operation)
+                .tag("error", "none")
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private double errors(String exception, String status) {
+        Counter counter = this.meterRegistry.find("storage.errors")
+                .tag("exception", exception)
+                .tag("status", status)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.cloudstorage.services;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchUploadServiceTest extends StorageTestSupport {
+    @Autowired
+    private BatchUploadService batchUploadService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void uploadsEveryFileAndKeepsTheRequestOrder() {
+        User user = this.createUser();
+        MultipartFile[] files = IntStream.range(0, 20)
+                .mapToObj(i -> file("file" + i + ".bin", i + 1))
+                .toArray(MultipartFile[]::new);
+
+        List<BatchUploadService.Result> results = this.batchUploadService.uploadFiles(Paths.get(user.getUsername()), files);
+
+        assertThat(results).hasSize(20).noneMatch(BatchUploadService.Result::failed);
+        for (int i = 0; i < 20; i++) {
+            assertThat(results.get(i).name()).isEqualTo("file" + i + ".bin");
+            assertThat(results.get(i).file()).hasSize(i + 1);
+        }
+    }
+
+    @Test
+    void rejectsDuplicateNamesWithinABatch() {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        MultipartFile[] files = {
+                file("same.bin", 10),
+                file("other.bin", 20),
+                file("same.bin", 30),
+                file("same.bin.", 40)
+        };
+
+        List<BatchUploadService.Result> results = this.batchUploadService.uploadFiles(directory, files);
+
+        assertThat(results.get(0).failed()).isFalse();
+        assertThat(results.get(1).failed()).isFalse();
+        assertThat(results.get(2).error()).isInstanceOf(StorageInvalidRequestException.class);
+        assertThat(results.get(3).error()).isInstanceOf(StorageInvalidRequestException.class);
+        assertThat(this.root().resolve(user.getUsername()).resolve("same.bin")).hasSize(10);
+    }
+
+    @Test
+    void recordsTheBatchDurationAndSize() {
+        User user = this.createUser();
+        Timer timer = this.meterRegistry.get("storage.batch.upload").timer();
+        DistributionSummary size = this.meterRegistry.get("storage.batch.upload.size").summary();
+        long uploads = timer.count();
+        double bytes = size.totalAmount();
+
+        this.batchUploadService.uploadFiles(Paths.get(user.getUsername()),
+                new MultipartFile[]{file("first.bin", 100), file("second.bin", 200)});
+
+        assertThat(timer.count()).isEqualTo(uploads + 1);
+        assertThat(size.totalAmount()).isEqualTo(bytes + 300);
+    }
+
+    @Test
+    void recordsOnlyTheStoredBytes() {
+        User user = this.createUser();
+        DistributionSummary size = this.meterRegistry.get("storage.batch.upload.size").summary();
+        double bytes = size.totalAmount();
+
+        this.batchUploadService.uploadFiles(Paths.get(user.getUsername()),
+                new MultipartFile[]{file("same.bin", 100), file("same.bin", 200), file("..", 400)});
+
+        assertThat(size.totalAmount()).isEqualTo(bytes + 100);
+    }
+
+    private static MultipartFile file(String name, int size) {
+        return new MockMultipartFile("files", name, null, new byte[size]);
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.cloudstorage.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.UploadSession;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestPropertySource(properties = {"storage.deduplication-enabled=true", "storage.upload-chunk-size=256B"})
+class DeduplicatingStorageServiceTest extends StorageTestSupport {
+
+    @Autowired
+    private DeduplicatingStorageService deduplicatingStorageService;
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Test
+    void keepsSharedBlobUntilTheLastLinkIsDeleted() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        byte[] content = randomContent();
+        Path blob = this.blob(content);
+
+        Path first = this.upload(directory, "first.bin", content);
+        Path second = this.upload(directory, "second.bin", content);
+        assertThat(Files.isSameFile(first, second)).isTrue();
+        assertThat(linkCount(blob)).isEqualTo(3);
+
+        this.storageService.deleteFile(directory.resolve("first.bin"));
+        this.deduplicatingStorageService.collectGarbage();
+
+        assertThat(first).doesNotExist();
+        assertThat(second).hasBinaryContent(content);
+        assertThat(blob).exists();
+        assertThat(linkCount(blob)).isEqualTo(2);
+
+        this.storageService.deleteFile(directory.resolve("second.bin"));
+        this.deduplicatingStorageService.collectGarbage();
+
+        assertThat(blob).doesNotExist();
+    }
+
+    @Test
+    void keepsBlobSharedWithACopy() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        this.storageService.createDirectory(directory, "copies");
+        byte[] content = randomContent();
+        Path blob = this.blob(content);
+
+        this.upload(directory, "original.bin", content);
+        Path copy = this.storageService.copyFile(directory.resolve("original.bin"), "copies", bytes -> {});
+        this.storageService.deleteFile(directory.resolve("original.bin"));
+        this.deduplicatingStorageService.collectGarbage();
+
+        assertThat(copy).hasBinaryContent(content);
+        assertThat(blob).exists();
+    }
+
+    @Test
+    void linksChunkedUploadsToTheBlobOfTheirContent() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        byte[] content = randomContent();
+        Path blob = this.blob(content);
+
+        UploadSession ordered = this.createSession(user, "ordered.bin", content.length);
+        for (int offset = 0; offset < content.length; offset += ordered.getChunkSize())
+            this.writeChunk(ordered, content, offset);
+        Path first = this.uploadSessionService.completeSession(ordered);
+
+        UploadSession rewritten = this.createSession(user, "rewritten.bin", content.length);
+        this.writeChunk(rewritten, new byte[content.length], 0);
+        for (int offset = rewritten.getChunkSize(); offset < content.length; offset += rewritten.getChunkSize())
+            this.writeChunk(rewritten, content, offset);
+        this.writeChunk(rewritten, content, 0);
+        Path second = this.uploadSessionService.completeSession(rewritten);
+
+        assertThat(first).hasBinaryContent(content);
+        assertThat(second).hasBinaryContent(content);
+        assertThat(Files.isSameFile(first, blob)).isTrue();
+        assertThat(Files.isSameFile(second, blob)).isTrue();
+    }
+
+    @Test
+    void collectsOrphanedBlobs() throws IOException {
+        byte[] content = randomContent();
+        Path orphan = this.blob(content);
+        Files.createDirectories(orphan.getParent());
+        Files.write(orphan, content);
+        Path partial = Files.write(orphan.resolveSibling(".upload-partial.part"), content);
+
+        this.deduplicatingStorageService.collectGarbage();
+
+        assertThat(orphan).doesNotExist();
+        assertThat(partial).exists();
+        Files.delete(partial);
+    }
+
+    @Test
+    void storesFilesWhileCollectingGarbage() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        byte[] content = randomContent();
+        Path blob = this.blob(content);
+        Path uploads = Files.createDirectories(Paths.get(this.storageProperties.getUploadLocation()));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Void> collector = CompletableFuture.runAsync(() -> {
+            while (running.get())
+                this.deduplicatingStorageService.collectGarbage();
+        });
+        try {
+            for (int i = 0; i < 50; i++) {
+                Path uploaded = this.upload(directory, "uploaded.bin", content);
+                Path source = Files.write(Files.createTempFile(uploads, "import-", ".bin"), content);
+                Path imported = this.storageService.importFile(directory, "imported.bin", source);
+
+                assertThat(uploaded).hasBinaryContent(content);
+                assertThat(imported).hasBinaryContent(content);
+                assertThat(Files.isSameFile(uploaded, blob)).isTrue();
+                assertThat(Files.isSameFile(imported, blob)).isTrue();
+
+                this.storageService.deleteFile(directory.resolve("uploaded.bin"));
+                this.storageService.deleteFile(directory.resolve("imported.bin"));
+            }
+        } finally {
+            running.set(false);
+            collector.join();
+        }
+    }
+
+    private Path upload(Path directory, String name, byte[] content) {
+        return this.storageService.uploadFile(directory, name, new ByteArrayInputStream(content));
+    }
+
+    private UploadSession createSession(User user, String name, long size) {
+        return this.uploadSessionService.createSession(user.getId(), Paths.get(user.getUsername()), name, size);
+    }
+
+    private void writeChunk(UploadSession session, byte[] content, int offset) {
+        byte[] chunk = Arrays.copyOfRange(content, offset, Math.min(offset + session.getChunkSize(), content.length));
+        this.uploadSessionService.writeChunk(session, (long) offset, new ByteArrayInputStream(chunk));
+    }
+
+    private Path blob(byte[] content) {
+        String hash = HexFormat.of().formatHex(sha256(content));
+        return Paths.get(this.storageProperties.getBlobLocation()).resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static long linkCount(Path file) throws IOException {
+        return ((Number) Files.getAttribute(file, "unix:nlink")).longValue();
+    }
+
+    private static byte[] randomContent() {
+        byte[] content = new byte[1024];
+        ThreadLocalRandom.current().nextBytes(content);
+        return content;
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
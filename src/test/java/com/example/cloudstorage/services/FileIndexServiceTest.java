@@ -0,0 +1,339 @@
+package com.example.cloudstorage.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.models.FileMetadata;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.repository.FileMetadataRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileIndexServiceTest extends StorageTestSupport {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(8);
+
+    @Autowired
+    private FileIndexService fileIndexService;
+
+    @Autowired
+    private FileMetadataRepository fileMetadataRepository;
+
+    @Test
+    void uploadUpdatesAncestorAggregates() {
+        Path home = this.createHome();
+        Path docs = this.storageService.createDirectory(home, "docs");
+        this.storageService.createDirectory(home.resolve("docs"), "sub");
+
+        this.upload(home.resolve("docs/sub"), "a.bin", 100);
+        this.upload(home.resolve("docs"), "b.bin", 50);
+
+        assertAggregates(home.resolve("docs/sub"), 100, 1);
+        assertAggregates(home.resolve("docs"), 150, 2);
+        assertAggregates(home, 150, 2);
+        assertThat(this.fileIndexService.load(docs).getDirectory()).isTrue();
+
+        this.upload(home.resolve("docs/sub"), "a.bin", 30);
+
+        assertAggregates(home.resolve("docs/sub"), 30, 1);
+        assertAggregates(home.resolve("docs"), 80, 2);
+        assertAggregates(home, 80, 2);
+    }
+
+    @Test
+    void moveUpdatesSourceAndTargetAggregates() {
+        Path home = this.createHome();
+        this.storageService.createDirectory(home, "docs");
+        this.storageService.createDirectory(home.resolve("docs"), "sub");
+        this.upload(home.resolve("docs"), "a.bin", 100);
+        this.upload(home.resolve("docs/sub"), "b.bin", 20);
+
+        this.storageService.moveFile(home.resolve("docs/a.bin"), "sub");
+
+        assertAggregates(home.resolve("docs/sub"), 120, 2);
+        assertAggregates(home.resolve("docs"), 120, 2);
+        assertAggregates(home.resolve("docs/sub/a.bin"), 100, 1);
+
+        this.storageService.moveFile(home.resolve("docs/sub"), "...");
+
+        assertAggregates(home.resolve("docs"), 0, 0);
+        assertAggregates(home.resolve("sub"), 120, 2);
+        assertAggregates(home.resolve("sub/a.bin"), 100, 1);
+        assertAggregates(home, 120, 2);
+        assertThat(this.fileMetadataRepository.findByPath(this.key(home.resolve("docs/sub/a.bin")))).isEmpty();
+    }
+
+    @Test
+    void deleteUpdatesAncestorAggregates() {
+        Path home = this.createHome();
+        this.storageService.createDirectory(home, "docs");
+        this.storageService.createDirectory(home.resolve("docs"), "sub");
+        this.upload(home.resolve("docs/sub"), "a.bin", 100);
+        this.upload(home.resolve("docs/sub"), "b.bin", 20);
+        this.upload(home.resolve("docs"), "c.bin", 5);
+
+        this.storageService.deleteFile(home.resolve("docs/sub/a.bin"));
+
+        assertAggregates(home.resolve("docs/sub"), 20, 1);
+        assertAggregates(home, 25, 2);
+
+        this.storageService.deleteFile(home.resolve("docs/sub"));
+
+        assertAggregates(home.resolve("docs"), 5, 1);
+        assertAggregates(home, 5, 1);
+        assertThat(this.fileMetadataRepository.findByPath(this.key(home.resolve("docs/sub/b.bin")))).isEmpty();
+    }
+
+    @Test
+    void concurrentUploadsKeepAggregatesExact() {
+        Path home = this.createHome();
+        this.storageService.createDirectory(home, "docs");
+        this.storageService.createDirectory(home.resolve("docs"), "sub");
+
+        List<CompletableFuture<Path>> uploads = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Path directory = i % 2 == 0 ? home.resolve("docs") : home.resolve("docs/sub");
+            String name = "file-" + i + ".bin";
+            int size = i + 1;
+            uploads.add(CompletableFuture.supplyAsync(() -> this.upload(directory, name, size), EXECUTOR));
+        }
+        uploads.forEach(CompletableFuture::join);
+
+        assertAggregates(home.resolve("docs/sub"), 420, 20);
+        assertAggregates(home.resolve("docs"), 820, 40);
+        assertAggregates(home, 820, 40);
+    }
+
+    @Test
+    void concurrentReplacementsKeepAggregatesInSyncWithTheFile() throws IOException {
+        Path home = this.createHome();
+        this.storageService.createDirectory(home, "docs");
+        Path file = this.upload(home.resolve("docs"), "shared.bin", 1);
+
+        List<CompletableFuture<Void>> replacements = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int size = 10 * (i + 1);
+            replacements.add(CompletableFuture.runAsync(() -> this.fileIndexService.index(
+                    this.replace(file, size)), EXECUTOR));
+        }
+        replacements.forEach(CompletableFuture::join);
+        this.fileIndexService.index(file);
+
+        long size = Files.size(file);
+        assertAggregates(home.resolve("docs/shared.bin"), size, 1);
+        assertAggregates(home.resolve("docs"), size, 1);
+        assertAggregates(home, size, 1);
+    }
+
+    @Test
+    void cursorPagesMatchTheFullListingForEverySortKey() throws IOException {
+        Path home = this.createHome();
+        this.storageService.createDirectory(home, "b-dir");
+        this.storageService.createDirectory(home, "a-dir");
+        for (int i = 0; i < 9; i++)
+            this.upload(home, "file-" + i + ".bin", 10 * (i % 3));
+        this.touchAll(home);
+
+        for (String key : List.of("name", "lastModified", "size", "type"))
+            for (boolean descending : List.of(false, true)) {
+                Sort sort = FileIndexService.buildSort(key, descending);
+                assertThat(this.pageThrough(home, sort, 4))
+                        .as("%s %s", key, descending ? "desc" : "asc")
+                        .hasSize(11)
+                        .doesNotHaveDuplicates()
+                        .containsExactlyElementsOf(this.ids(this.storageService.loadDirectory(home, sort)));
+            }
+    }
+
+    @Test
+    void cursorBreaksTiesById() throws IOException {
+        Path home = this.createHome();
+        for (int i = 0; i < 7; i++)
+            this.upload(home, "same-" + i + ".bin", 42);
+        this.touchAll(home);
+
+        Sort sort = FileIndexService.buildSort("size", false);
+        assertThat(this.pageThrough(home, sort, 2))
+                .hasSize(7)
+                .doesNotHaveDuplicates()
+                .containsExactlyElementsOf(this.ids(this.storageService.loadDirectory(home, sort)));
+    }
+
+    @Test
+    void cursorRoundTripsItsKeys() {
+        Path home = this.createHome();
+        this.upload(home, "a.bin", 1);
+        this.upload(home, "b.bin", 2);
+
+        Sort sort = FileIndexService.buildSort("size", true);
+        Window<FileMetadata> page = this.storageService.loadDirectory(home, sort, ScrollPosition.keyset(), 1);
+        ScrollPosition position = page.positionAt(0);
+
+        assertThat(this.fileIndexService.decodeCursor(this.fileIndexService.encodeCursor(position), sort))
+                .isEqualTo(position);
+        assertThat(this.fileIndexService.decodeCursor(null, sort)).isEqualTo(ScrollPosition.keyset());
+    }
+
+    @Test
+    void rejectsTamperedOrMismatchedCursors() {
+        Path home = this.createHome();
+        this.upload(home, "a.bin", 1);
+        this.upload(home, "b.bin", 2);
+
+        Sort byName = FileIndexService.buildSort("name", false);
+        Sort bySize = FileIndexService.buildSort("size", false);
+        String cursor = this.fileIndexService.encodeCursor(
+                this.storageService.loadDirectory(home, byName, ScrollPosition.keyset(), 1).positionAt(0));
+
+        assertThatThrownBy(() -> this.fileIndexService.decodeCursor(cursor, bySize))
+                .isInstanceOf(StorageInvalidRequestException.class);
+        assertThatThrownBy(() -> this.fileIndexService.decodeCursor("not a cursor", byName))
+                .isInstanceOf(StorageInvalidRequestException.class);
+        assertThatThrownBy(() -> this.fileIndexService.decodeCursor(cursor.substring(1), byName))
+                .isInstanceOf(StorageInvalidRequestException.class);
+        assertThatThrownBy(() -> this.fileIndexService.decodeCursor(
+                encode("{\"name\":\"a.bin\",\"id\":\"not-a-uuid\"}"), byName))
+                .isInstanceOf(StorageInvalidRequestException.class);
+        assertThatThrownBy(() -> this.fileIndexService.decodeCursor(
+                encode("{\"name\":1,\"id\":\"" + UUID.randomUUID() + "\"}"), byName))
+                .isInstanceOf(StorageInvalidRequestException.class);
+        assertThatThrownBy(() -> FileIndexService.buildSort("owner", false))
+                .isInstanceOf(StorageInvalidRequestException.class);
+    }
+
+    @Test
+    void reconcileRepairsTheIndexFromDisk() throws IOException {
+        Path home = this.createHome();
+        this.storageService.createDirectory(home, "docs");
+        this.upload(home.resolve("docs"), "kept.bin", 10);
+        this.upload(home.resolve("docs"), "removed.bin", 20);
+        this.upload(home.resolve("docs"), "resized.bin", 30);
+
+        Path docs = this.root().resolve(home).resolve("docs");
+        Files.delete(docs.resolve("removed.bin"));
+        Files.write(docs.resolve("resized.bin"), new byte[5]);
+        Files.createDirectories(docs.resolve("added"));
+        Files.write(docs.resolve("added/new.txt"), new byte[7]);
+        Files.write(docs.resolve(".upload-partial.part"), new byte[100]);
+
+        this.fileIndexService.reconcile();
+
+        assertThat(this.fileMetadataRepository.findByPath(this.key(home.resolve("docs/removed.bin")))).isEmpty();
+        assertThat(this.fileMetadataRepository.findByPath(this.key(home.resolve("docs/.upload-partial.part"))))
+                .isEmpty();
+        assertThat(this.fileMetadataRepository.findByPath(this.key(home.resolve("docs/added/new.txt"))))
+                .hasValueSatisfying(metadata -> assertThat(metadata.getContentType()).isEqualTo("text/plain"));
+        assertAggregates(home.resolve("docs/resized.bin"), 5, 1);
+        assertAggregates(home.resolve("docs/added"), 7, 1);
+        assertAggregates(home.resolve("docs"), 22, 3);
+        assertAggregates(home, 22, 3);
+    }
+
+    @Test
+    void detectsContentTypesFromTheStoredBytes() {
+        Path home = this.createHome();
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 0x0d, 'I', 'H', 'D', 'R'};
+
+        this.storageService.uploadFile(home, "image.bin", new ByteArrayInputStream(png));
+        this.storageService.uploadFile(home, "notes.txt",
+                new ByteArrayInputStream("plain text".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(this.contentType(home.resolve("image.bin"))).isEqualTo("image/png");
+        assertThat(this.contentType(home.resolve("notes.txt"))).isEqualTo("text/plain");
+    }
+
+    @Test
+    void reconcileFillsInMissingContentTypes() {
+        Path home = this.createHome();
+        this.upload(home, "notes.txt", 10);
+        FileMetadata metadata = this.fileMetadataRepository.findByPath(this.key(home.resolve("notes.txt")))
+                .orElseThrow();
+        metadata.setContentType(null);
+        this.fileMetadataRepository.save(metadata);
+
+        this.fileIndexService.reconcile();
+
+        assertThat(this.contentType(home.resolve("notes.txt"))).isEqualTo("text/plain");
+    }
+
+    private Path replace(Path file, int size) {
+        try {
+            Path temporary = Files.write(Files.createTempFile(file.getParent(), ".upload-", ".part"), new byte[size]);
+            return Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<UUID> pageThrough(Path directory, Sort sort, int limit) {
+        List<UUID> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Window<FileMetadata> page = this.storageService.loadDirectory(directory, sort,
+                    this.fileIndexService.decodeCursor(cursor, sort), limit);
+            ids.addAll(this.ids(page.getContent()));
+            cursor = page.hasNext() ? this.fileIndexService.encodeCursor(page.positionAt(page.size() - 1)) : null;
+        } while (cursor != null);
+        return ids;
+    }
+
+    private List<UUID> ids(List<FileMetadata> files) {
+        return files.stream().map(FileMetadata::getId).toList();
+    }
+
+    private void touchAll(Path directory) throws IOException {
+        FileTime time = FileTime.fromMillis(1_700_000_000_000L);
+        try (var files = Files.list(this.root().resolve(directory))) {
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, time);
+                this.fileIndexService.index(file);
+            }
+        }
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path createHome() {
+        User user = this.createUser();
+        return Paths.get(user.getUsername());
+    }
+
+    private String contentType(Path path) {
+        return this.fileMetadataRepository.findByPath(this.key(path)).orElseThrow().getContentType();
+    }
+
+    private void assertAggregates(Path path, long totalSize, long fileCount) {
+        FileMetadata metadata = this.fileMetadataRepository.findByPath(this.key(path)).orElseThrow();
+        assertThat(metadata.getTotalSize()).as("total size of %s", path).isEqualTo(totalSize);
+        assertThat(metadata.getFileCount()).as("file count of %s", path).isEqualTo(fileCount);
+    }
+
+    private String key(Path path) {
+        return path.toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+}
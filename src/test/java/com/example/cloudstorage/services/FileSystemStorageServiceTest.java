@@ -0,0 +1,170 @@
+package com.example.cloudstorage.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemStorageServiceTest extends StorageTestSupport {
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Test
+    void streamsAnUploadThroughAStagingFile() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        Path destination = this.root().resolve(directory).resolve("file.txt");
+        List<Path> staged = new ArrayList<>();
+        List<Boolean> visible = new ArrayList<>();
+
+        Path file = this.storageService.uploadFile(directory, "file.txt", this.observeEnd("content", () -> {
+            staged.addAll(stagingFiles(destination.getParent()));
+            visible.add(Files.exists(destination));
+        }));
+
+        assertThat(file).isEqualTo(destination).hasContent("content");
+        assertThat(staged).hasSize(1);
+        assertThat(visible).containsExactly(false);
+        assertThat(stagingFiles(destination.getParent())).isEmpty();
+        assertThat(this.usedBytes(user)).isEqualTo("content".length());
+    }
+
+    @Test
+    void replacesAFileOnlyOnceTheUploadCompletes() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        Path destination = this.upload(directory, "file.txt", "old content");
+        List<String> during = new ArrayList<>();
+
+        this.storageService.uploadFile(directory, "file.txt",
+                this.observeEnd("new", () -> during.add(readString(destination))));
+
+        assertThat(during).containsExactly("old content");
+        assertThat(destination).hasContent("new");
+        assertThat(this.usedBytes(user)).isEqualTo("new".length());
+    }
+
+    @Test
+    void removesTheStagingFileWhenTheQuotaRunsOut() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        Path existing = this.upload(directory, "file.txt", "old content");
+        long quota = this.storageQuotaService.getQuota(user);
+        this.storageQuotaService.reserve(existing.resolveSibling("reserved.bin"), quota - this.usedBytes(user) - 20);
+
+        assertThatThrownBy(() -> this.storageService.uploadFile(directory, "file.txt",
+                new ByteArrayInputStream(new byte[100])))
+                .isInstanceOf(StorageQuotaExceededException.class);
+
+        assertThat(existing).hasContent("old content");
+        assertThat(stagingFiles(existing.getParent())).isEmpty();
+        assertThat(this.usedBytes(user)).isEqualTo(quota - 20);
+    }
+
+    @Test
+    void zipsANestedTree() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        this.storageService.createDirectory(directory, "docs");
+        Path docs = directory.resolve("docs");
+        this.storageService.createDirectory(docs, "nested");
+        this.storageService.createDirectory(docs, "empty");
+        this.upload(docs, "a.txt", "first");
+        this.upload(docs.resolve("nested"), "b.txt", "second file");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        AtomicLong progress = new AtomicLong();
+        this.storageService.zipDirectory(docs, outputStream, progress::addAndGet);
+
+        assertThat(unzip(outputStream.toByteArray())).containsExactlyInAnyOrderEntriesOf(Map.of(
+                "a.txt", "first",
+                "empty/", "",
+                "nested/", "",
+                "nested/b.txt", "second file"));
+        assertThat(progress).hasValue("first".length() + "second file".length());
+    }
+
+    @Test
+    void leavesUploadsInProgressOutOfTheArchive() throws IOException {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+        this.upload(directory, "complete.txt", "complete");
+        Files.writeString(this.root().resolve(directory).resolve(".upload-123.part"), "partial");
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.storageService.zipDirectory(directory, outputStream);
+
+        assertThat(unzip(outputStream.toByteArray())).containsOnlyKeys("complete.txt");
+    }
+
+    private Path upload(Path directory, String name, String content) {
+        return this.storageService.uploadFile(
+                directory, name, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private InputStream observeEnd(String content, Runnable observer) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                int read = super.read(b, off, len);
+                if (read < 0)
+                    observer.run();
+                return read;
+            }
+        };
+    }
+
+    private long usedBytes(User user) {
+        return this.userRepository.findById(user.getId()).orElseThrow().getUsedBytes();
+    }
+
+    private static List<Path> stagingFiles(Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(".upload-")).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String readString(Path file) {
+        try {
+            return Files.readString(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, String> unzip(byte[] archive) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zipStream.getNextEntry()) != null)
+                entries.put(entry.getName(), new String(zipStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        return entries;
+    }
+}
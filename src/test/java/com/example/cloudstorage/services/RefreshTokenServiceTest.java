@@ -0,0 +1,108 @@
+package com.example.cloudstorage.services;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.RefreshToken;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.repository.RefreshTokenRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@TestPropertySource(properties = "cloud-storage.app.jwt-refresh-cleanup-batch-size=2")
+class RefreshTokenServiceTest extends StorageTestSupport {
+    @SpyBean
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Test
+    void insertsATokenOnFirstLogin() {
+        User user = this.createUser();
+
+        String token = this.refreshTokenService.rotateRefreshToken(user.getId());
+
+        assertThat(this.refreshTokenService.findByToken(token))
+                .hasValueSatisfying(refreshToken -> assertThat(refreshToken.getUser().getId()).isEqualTo(user.getId()));
+    }
+
+    @Test
+    void rotatesTheExistingTokenInPlace() {
+        User user = this.createUser();
+        String first = this.refreshTokenService.rotateRefreshToken(user.getId());
+        Long id = this.refreshTokenService.findByToken(first).orElseThrow().getId();
+
+        String second = this.refreshTokenService.rotateRefreshToken(user.getId());
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(this.refreshTokenService.findByToken(first)).isEmpty();
+        assertThat(this.refreshTokenService.findByToken(second)).map(RefreshToken::getId).hasValue(id);
+    }
+
+    @Test
+    void fallsBackToRotatingWhenAConcurrentLoginInserted() {
+        User user = this.createUser();
+        String competing = UUID.randomUUID().toString();
+        Answer<?> delegate = mockingDetails(this.refreshTokenRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            this.refreshTokenRepository.save(new RefreshToken(user, competing, Instant.now().plusSeconds(3600)));
+            return 0;
+        }).doAnswer(delegate).when(this.refreshTokenRepository).rotate(anyLong(), anyString(), any());
+
+        String token = this.refreshTokenService.rotateRefreshToken(user.getId());
+
+        verify(this.refreshTokenRepository, times(2)).rotate(anyLong(), anyString(), any());
+        assertThat(this.refreshTokenService.findByToken(competing)).isEmpty();
+        assertThat(this.refreshTokenService.findByToken(token))
+                .hasValueSatisfying(refreshToken -> assertThat(refreshToken.getUser().getId()).isEqualTo(user.getId()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void purgesExpiredTokensInBatches() {
+        Instant expired = Instant.now().minusSeconds(60);
+        List<Long> expiredIds = List.of(
+                this.saveToken(expired), this.saveToken(expired), this.saveToken(expired),
+                this.saveToken(expired), this.saveToken(expired));
+        Long live = this.saveToken(Instant.now().plusSeconds(3600));
+        clearInvocations(this.refreshTokenRepository);
+
+        this.refreshTokenService.purgeExpiredTokens();
+
+        ArgumentCaptor<List<Long>> batches = ArgumentCaptor.forClass(List.class);
+        verify(this.refreshTokenRepository, atLeastOnce()).deleteAllByIds(batches.capture());
+        assertThat(batches.getAllValues())
+                .hasSizeGreaterThanOrEqualTo(3)
+                .allSatisfy(ids -> assertThat(ids).hasSizeLessThanOrEqualTo(2));
+        assertThat(batches.getAllValues().stream().flatMap(List::stream)).containsAll(expiredIds);
+        assertThat(this.refreshTokenRepository.findAllById(expiredIds)).isEmpty();
+        assertThat(this.refreshTokenRepository.findById(live)).isPresent();
+    }
+
+    private Long saveToken(Instant expiryDate) {
+        User user = this.createUser();
+        return this.refreshTokenRepository
+                .save(new RefreshToken(user, UUID.randomUUID().toString(), expiryDate))
+                .getId();
+    }
+}
@@ -0,0 +1,345 @@
+package com.example.cloudstorage.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.exceptions.storage.StorageJobLimitException;
+import com.example.cloudstorage.models.StorageJob;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.repository.StorageJobRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@TestPropertySource(properties = {"storage.job-threads=1", "storage.job-queue-limit=3"})
+class StorageJobServiceTest extends StorageTestSupport {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @SpyBean
+    private StorageService spiedStorageService;
+
+    @Autowired
+    private StorageJobService storageJobService;
+
+    @Autowired
+    private StorageJobRepository storageJobRepository;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    private final List<Path> deleted = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch unblocked = new CountDownLatch(1);
+    private Path blocker;
+
+    @BeforeEach
+    void blockOnDelete() {
+        doAnswer(invocation -> {
+            Path path = invocation.getArgument(0);
+            this.deleted.add(path);
+            if (path.equals(this.blocker)) {
+                this.blocked.countDown();
+                try {
+                    this.unblocked.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException ignored) {
+                }
+            }
+            return invocation.callRealMethod();
+        }).when(this.spiedStorageService).deleteFile(any(Path.class), any(LongConsumer.class));
+    }
+
+    @AfterEach
+    void unblock() {
+        this.unblocked.countDown();
+    }
+
+    @Test
+    void schedulesUsersFairly() throws InterruptedException {
+        User first = this.createUser();
+        User second = this.createUser();
+        StorageJob blocking = this.startBlockingJob(first);
+
+        StorageJob firstA = this.storageJobService.deleteFiles(first.getId(), List.of(this.file(first, "a.bin")));
+        StorageJob firstB = this.storageJobService.deleteFiles(first.getId(), List.of(this.file(first, "b.bin")));
+        StorageJob secondA = this.storageJobService.deleteFiles(second.getId(), List.of(this.file(second, "a.bin")));
+        this.unblocked.countDown();
+
+        for (StorageJob job : List.of(blocking, firstA, firstB, secondA))
+            this.awaitStatus(job, StorageJob.Status.COMPLETED);
+        assertThat(this.deleted).containsExactly(
+                this.blocker,
+                Paths.get(second.getUsername(), "a.bin"),
+                Paths.get(first.getUsername(), "a.bin"),
+                Paths.get(first.getUsername(), "b.bin"));
+    }
+
+    @Test
+    void cancelsQueuedJob() throws InterruptedException {
+        User user = this.createUser();
+        StorageJob blocking = this.startBlockingJob(user);
+        StorageJob queued = this.storageJobService.deleteFiles(user.getId(), List.of(this.file(user, "a.bin")));
+
+        StorageJob cancelled = this.storageJobService.cancelJob(user.getId(), queued.getId());
+        this.unblocked.countDown();
+
+        assertThat(cancelled.getStatus()).isEqualTo(StorageJob.Status.CANCELLED);
+        this.awaitStatus(blocking, StorageJob.Status.COMPLETED);
+        assertThat(this.storageJobRepository.findById(queued.getId()).orElseThrow().getStatus())
+                .isEqualTo(StorageJob.Status.CANCELLED);
+        assertThat(this.deleted).containsExactly(this.blocker);
+        assertThat(this.storageService.findFile(Paths.get(user.getUsername(), "a.bin"))).isPresent();
+    }
+
+    @Test
+    void cancelsRunningJob() throws InterruptedException {
+        User user = this.createUser();
+        StorageJob running = this.startBlockingJob(user);
+
+        this.storageJobService.cancelJob(user.getId(), running.getId());
+        this.unblocked.countDown();
+
+        this.awaitStatus(running, StorageJob.Status.CANCELLED);
+    }
+
+    @Test
+    void limitsQueuedJobsPerUser() throws InterruptedException {
+        User user = this.createUser();
+        User other = this.createUser();
+        StorageJob blocking = this.startBlockingJob(user);
+        StorageJob first = this.storageJobService.deleteFiles(user.getId(), List.of(this.file(user, "a.bin")));
+        StorageJob second = this.storageJobService.deleteFiles(user.getId(), List.of(this.file(user, "b.bin")));
+        List<Path> extra = List.of(this.file(user, "c.bin"));
+
+        assertThatThrownBy(() -> this.storageJobService.deleteFiles(user.getId(), extra))
+                .isInstanceOf(StorageJobLimitException.class);
+        StorageJob otherJob = this.storageJobService.deleteFiles(other.getId(), List.of(this.file(other, "a.bin")));
+        this.unblocked.countDown();
+
+        for (StorageJob job : List.of(blocking, first, second, otherJob))
+            this.awaitStatus(job, StorageJob.Status.COMPLETED);
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (true) {
+            try {
+                this.awaitStatus(this.storageJobService.deleteFiles(user.getId(), extra), StorageJob.Status.COMPLETED);
+                break;
+            } catch (StorageJobLimitException e) {
+                if (System.nanoTime() > deadline)
+                    throw e;
+                Thread.sleep(20);
+            }
+        }
+    }
+
+    @Test
+    void copiesATreeAndChargesItToTheQuota() throws InterruptedException {
+        User user = this.createUser();
+        Path docs = this.createDocs(user);
+        this.storageService.createDirectory(Paths.get(user.getUsername()), "backup");
+        long usedBytes = this.usedBytes(user);
+
+        StorageJob copy = this.awaitStatus(this.storageJobService.copyFiles(user.getId(), List.of(docs), "backup"),
+                StorageJob.Status.COMPLETED);
+
+        Path copied = this.root().resolve(user.getUsername()).resolve("backup").resolve("docs");
+        assertThat(copied.resolve("a.bin")).hasSize(100);
+        assertThat(copied.resolve("nested").resolve("b.bin")).hasSize(50);
+        assertThat(copy.getProcessedBytes()).isEqualTo(150);
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + 150);
+        assertThat(this.root().resolve(docs)).isDirectory();
+    }
+
+    @Test
+    void refundsTheQuotaWhenACopyFails() throws IOException, InterruptedException {
+        User user = this.createUser();
+        Path docs = this.createDocs(user);
+        this.storageService.createDirectory(Paths.get(user.getUsername()), "backup");
+        Files.createSymbolicLink(this.root().resolve(docs).resolve("broken.bin"), Paths.get("missing.bin"));
+        long usedBytes = this.usedBytes(user);
+
+        this.awaitStatus(this.storageJobService.copyFiles(user.getId(), List.of(docs), "backup"),
+                StorageJob.Status.FAILED);
+
+        assertThat(this.root().resolve(user.getUsername()).resolve("backup")).isEmptyDirectory();
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes);
+    }
+
+    @Test
+    void chargesArchivesToTheQuotaUntilPurged() throws InterruptedException {
+        User user = this.createUser();
+        this.storageService.createDirectory(Paths.get(user.getUsername()), "docs");
+        this.upload(Paths.get(user.getUsername(), "docs"), "a.bin", 1000);
+        long usedBytes = this.usedBytes(user);
+
+        StorageJob zip = this.awaitStatus(this.storageJobService.zipDirectory(
+                user.getId(), Paths.get(user.getUsername(), "docs")), StorageJob.Status.COMPLETED);
+        Path archive = this.storageJobService.loadArchive(zip);
+        assertThat(archive.getParent().getFileName()).hasToString(user.getUsername());
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + archive.toFile().length());
+
+        this.storageQuotaService.reconcile();
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + archive.toFile().length());
+
+        this.expire(zip);
+        this.storageJobService.purgeFinishedJobs();
+
+        assertThat(archive).doesNotExist();
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes);
+    }
+
+    @Test
+    void failsArchivesOverTheQuota() throws InterruptedException {
+        User user = this.createUser();
+        this.storageService.createDirectory(Paths.get(user.getUsername()), "docs");
+        this.upload(Paths.get(user.getUsername(), "docs"), "a.bin", 1000);
+        this.storageQuotaService.reserve(this.root().resolve(user.getUsername()).resolve("reserved.bin"),
+                this.storageQuotaService.getQuota(user) - this.usedBytes(user));
+
+        StorageJob zip = this.awaitStatus(this.storageJobService.zipDirectory(
+                user.getId(), Paths.get(user.getUsername(), "docs")), StorageJob.Status.FAILED);
+
+        assertThat(zip.getError()).contains("Storage quota exceeded");
+        assertThat(Paths.get(this.storageProperties.getJobLocation(), user.getUsername())).isEmptyDirectory();
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void requeuesRunningJobsOnShutdown() throws InterruptedException {
+        User user = this.createUser();
+        StorageJob running = this.startBlockingJob(user);
+        StorageJob queued = this.storageJobService.deleteFiles(user.getId(), List.of(this.file(user, "a.bin")));
+
+        this.storageJobService.shutdown();
+
+        assertThat(this.storageJobRepository.findById(running.getId()).orElseThrow().getStatus())
+                .isEqualTo(StorageJob.Status.QUEUED);
+        assertThat(this.storageJobRepository.findById(queued.getId()).orElseThrow().getStatus())
+                .isEqualTo(StorageJob.Status.QUEUED);
+    }
+
+    @Test
+    void resumesJobsWhenTheApplicationIsReady() throws InterruptedException {
+        User user = this.createUser();
+        Path queuedFile = this.file(user, "queued.bin");
+        Path interruptedFile = this.file(user, "interrupted.bin");
+        StorageJob queued = this.storageJobRepository.save(new StorageJob(UUID.randomUUID().toString(), user,
+                StorageJob.Type.DELETE, List.of(queuedFile), null, 10L));
+        StorageJob interrupted = this.storageJobRepository.save(new StorageJob(UUID.randomUUID().toString(), user,
+                StorageJob.Type.COPY, List.of(interruptedFile), "...", 10L));
+        this.storageJobRepository.updateStatus(interrupted.getId(),
+                StorageJob.Status.QUEUED, StorageJob.Status.RUNNING, null);
+
+        this.applicationContext.publishEvent(new ApplicationReadyEvent(
+                new SpringApplication(), new String[0], this.applicationContext, Duration.ZERO));
+
+        this.awaitStatus(queued, StorageJob.Status.COMPLETED);
+        assertThat(this.storageService.findFile(queuedFile)).isEmpty();
+        assertThat(this.awaitStatus(interrupted, StorageJob.Status.FAILED).getError())
+                .isEqualTo("Interrupted by a server restart");
+        assertThat(this.storageService.findFile(interruptedFile)).isPresent();
+    }
+
+    @Test
+    void purgesExpiredJobsAndTheirArchives() throws IOException, InterruptedException {
+        User user = this.createUser();
+        this.storageService.createDirectory(Paths.get(user.getUsername()), "docs");
+        this.upload(Paths.get(user.getUsername(), "docs"), "a.bin", 10);
+        StorageJob zip = this.awaitStatus(this.storageJobService.zipDirectory(
+                user.getId(), Paths.get(user.getUsername(), "docs")), StorageJob.Status.COMPLETED);
+        StorageJob recent = this.awaitStatus(this.storageJobService.deleteFiles(
+                user.getId(), List.of(this.file(user, "recent.bin"))), StorageJob.Status.COMPLETED);
+        StorageJob stuck = this.awaitStatus(this.storageJobService.deleteFiles(
+                user.getId(), List.of(this.file(user, "stuck.bin"))), StorageJob.Status.COMPLETED);
+
+        Path archive = this.storageJobService.loadArchive(zip);
+        assertThat(archive).isRegularFile();
+        Path undeletable = Files.createDirectories(archive.resolveSibling(stuck.getId() + ".zip"));
+        Files.write(undeletable.resolve("content"), new byte[1]);
+        this.expire(zip);
+        this.expire(stuck);
+
+        this.storageJobService.purgeFinishedJobs();
+
+        assertThat(this.storageJobRepository.findById(zip.getId())).isEmpty();
+        assertThat(archive).doesNotExist();
+        assertThat(this.storageJobRepository.findById(stuck.getId())).isPresent();
+        assertThat(this.storageJobRepository.findById(recent.getId())).isPresent();
+    }
+
+    private StorageJob startBlockingJob(User user) throws InterruptedException {
+        this.blocker = this.file(user, "blocker.bin");
+        StorageJob job = this.storageJobService.deleteFiles(user.getId(), List.of(this.blocker));
+        if (!this.blocked.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS))
+            fail("Blocking job did not start");
+        return job;
+    }
+
+    private Path createDocs(User user) {
+        Path docs = Paths.get(user.getUsername(), "docs");
+        this.storageService.createDirectory(Paths.get(user.getUsername()), "docs");
+        this.storageService.createDirectory(docs, "nested");
+        this.upload(docs, "a.bin", 100);
+        this.upload(docs.resolve("nested"), "b.bin", 50);
+        return docs;
+    }
+
+    private Path file(User user, String name) {
+        return this.upload(Paths.get(user.getUsername()), name, 10)
+                .subpath(this.root().getNameCount(), this.root().getNameCount() + 2);
+    }
+
+    private long usedBytes(User user) {
+        return this.userRepository.findById(user.getId()).orElseThrow().getUsedBytes();
+    }
+
+    private void expire(StorageJob job) {
+        this.jdbcTemplate.update("update storage_job set finished_date = ? where id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(30))), job.getId());
+    }
+
+    private StorageJob awaitStatus(StorageJob job, StorageJob.Status status) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (true) {
+            StorageJob current = this.storageJobRepository.findById(job.getId()).orElseThrow();
+            if (current.getStatus() == status)
+                return current;
+            if (System.nanoTime() > deadline)
+                fail("Job " + job.getId() + " is " + current.getStatus() + " instead of " + status);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.cloudstorage.services;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StorageQuotaServiceTest extends StorageTestSupport {
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Test
+    void reserveSucceedsUpToTheQuota() {
+        User user = this.createUser();
+        long quota = this.storageQuotaService.getQuota(user);
+
+        this.storageQuotaService.reserve(this.fileOf(user), quota);
+
+        assertThat(this.usedBytes(user)).isEqualTo(quota);
+    }
+
+    @Test
+    void reserveFailsAboveTheQuota() {
+        User user = this.createUser();
+        long quota = this.storageQuotaService.getQuota(user);
+        this.storageQuotaService.reserve(this.fileOf(user), quota - 10);
+
+        assertThatThrownBy(() -> this.storageQuotaService.reserve(this.fileOf(user), 11))
+                .isInstanceOf(StorageQuotaExceededException.class);
+        assertThat(this.usedBytes(user)).isEqualTo(quota - 10);
+    }
+
+    @Test
+    void releaseDoesNotGoBelowZero() {
+        User user = this.createUser();
+        this.storageQuotaService.reserve(this.fileOf(user), 100);
+
+        this.storageQuotaService.release(this.fileOf(user), 250);
+
+        assertThat(this.usedBytes(user)).isZero();
+    }
+
+    @Test
+    void reserveIgnoresFilesOutsideOfAUserDirectory() {
+        User user = this.createUser();
+
+        this.storageQuotaService.reserve(this.root().resolve(".."), Long.MAX_VALUE);
+
+        assertThat(this.usedBytes(user)).isZero();
+    }
+
+    @Test
+    void uploadAndDeleteAreAccounted() {
+        User user = this.createUser();
+        Path directory = Paths.get(user.getUsername());
+
+        this.upload(directory, "a.bin", 100);
+        this.upload(directory, "b.bin", 50);
+        this.upload(directory, "a.bin", 30);
+        assertThat(this.usedBytes(user)).isEqualTo(80);
+
+        this.storageService.deleteFile(directory.resolve("a.bin"));
+        assertThat(this.usedBytes(user)).isEqualTo(50);
+    }
+
+    @Test
+    void streamedUploadStopsAtTheRemainingQuota() {
+        User user = this.createUser();
+        long quota = this.storageQuotaService.getQuota(user);
+        this.storageQuotaService.reserve(this.fileOf(user), quota - 50);
+
+        assertThatThrownBy(() -> this.upload(Paths.get(user.getUsername()), "large.bin", 100))
+                .isInstanceOf(StorageQuotaExceededException.class);
+        assertThat(this.storageService.findFile(Paths.get(user.getUsername(), "large.bin"))).isEmpty();
+        assertThat(this.usedBytes(user)).isEqualTo(quota - 50);
+    }
+
+    @Test
+    void reconcileCorrectsDriftedUsage() {
+        User user = this.createUser();
+        this.upload(Paths.get(user.getUsername()), "a.bin", 100);
+        this.storageQuotaService.reserve(this.fileOf(user), 500);
+
+        this.storageQuotaService.reconcile();
+
+        assertThat(this.usedBytes(user)).isEqualTo(100);
+    }
+
+    private Path fileOf(User user) {
+        return this.root().resolve(user.getUsername()).resolve("file.bin");
+    }
+
+    private long usedBytes(User user) {
+        return this.userRepository.findById(user.getId()).orElseThrow().getUsedBytes();
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.cloudstorage.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.exceptions.storage.StorageInvalidRequestException;
+import com.example.cloudstorage.exceptions.storage.StorageQuotaExceededException;
+import com.example.cloudstorage.exceptions.storage.StorageUploadLimitException;
+import com.example.cloudstorage.exceptions.storage.StorageUploadNotFoundException;
+import com.example.cloudstorage.models.UploadSession;
+import com.example.cloudstorage.models.User;
+import com.example.cloudstorage.repository.UploadSessionRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@TestPropertySource(properties = {"storage.upload-chunk-size=16B", "storage.upload-session-limit=2"})
+class UploadSessionServiceTest extends StorageTestSupport {
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private StorageQuotaService storageQuotaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void assemblesChunksWrittenOutOfOrder() {
+        User user = this.createUser();
+        byte[] content = randomContent(40);
+        UploadSession session = this.createSession(user, "file.bin", content.length);
+
+        this.writeChunk(session, content, 32);
+        this.writeChunk(session, content, 0);
+        this.writeChunk(session, content, 16);
+        Path file = this.uploadSessionService.completeSession(session);
+
+        assertThat(file).hasBinaryContent(content);
+        assertThat(this.uploadSessionRepository.findById(session.getId())).isEmpty();
+        assertThat(this.getPartFile(session)).doesNotExist();
+    }
+
+    @Test
+    void resumesFromTheReceivedChunks() {
+        User user = this.createUser();
+        byte[] content = randomContent(40);
+        UploadSession session = this.createSession(user, "file.bin", content.length);
+
+        this.writeChunk(session, content, 0);
+        this.writeChunk(session, content, 32);
+        this.writeChunk(session, content, 32);
+        assertThatThrownBy(() -> this.uploadSessionService.completeSession(session))
+                .isInstanceOf(StorageInvalidRequestException.class);
+
+        UploadSession resumed = this.uploadSessionService.loadSession(user.getId(), session.getId());
+        assertThat(this.uploadSessionService.getReceivedChunks(resumed)).containsExactly(0, 2);
+        this.writeChunk(resumed, content, 16);
+
+        assertThat(this.uploadSessionService.completeSession(resumed)).hasBinaryContent(content);
+    }
+
+    @Test
+    void rejectsMisalignedOrShortChunks() {
+        User user = this.createUser();
+        byte[] content = randomContent(40);
+        UploadSession session = this.createSession(user, "file.bin", content.length);
+
+        assertThatThrownBy(() -> this.uploadSessionService.writeChunk(
+                session, 8L, new ByteArrayInputStream(content, 8, 16)))
+                .isInstanceOf(StorageInvalidRequestException.class);
+        assertThatThrownBy(() -> this.uploadSessionService.writeChunk(
+                session, 0L, new ByteArrayInputStream(content, 0, 10)))
+                .isInstanceOf(StorageInvalidRequestException.class);
+        assertThat(this.uploadSessionService.getReceivedChunks(session)).isEmpty();
+    }
+
+    @Test
+    void preallocatesTheStagingFile() throws IOException {
+        User user = this.createUser();
+        UploadSession session = this.createSession(user, "file.bin", 100);
+
+        assertThat(Files.size(this.getPartFile(session))).isEqualTo(100);
+    }
+
+    @Test
+    void validatesTheTargetNameUpFront() {
+        User user = this.createUser();
+        this.storageService.createDirectory(Paths.get(user.getUsername()), "existing");
+        long usedBytes = this.usedBytes(user);
+
+        for (String name : new String[]{"../escape.bin", "nested/file.bin", "...", "existing"})
+            assertThatThrownBy(() -> this.createSession(user, name, 10))
+                    .isInstanceOf(StorageInvalidRequestException.class);
+        assertThat(this.uploadSessionRepository.countByUserId(user.getId())).isZero();
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes);
+
+        assertThat(this.createSession(user, "trailing.bin..", 10).getName()).isEqualTo("trailing.bin");
+    }
+
+    @Test
+    void rejectsChunksForAnEndedSession() {
+        User user = this.createUser();
+        byte[] content = randomContent(40);
+        UploadSession session = this.createSession(user, "file.bin", content.length);
+
+        this.uploadSessionService.cancelSession(session);
+
+        assertThatThrownBy(() -> this.writeChunk(session, content, 0))
+                .isInstanceOf(StorageUploadNotFoundException.class);
+    }
+
+    @Test
+    void reservesTheQuotaUntilTheSessionEnds() {
+        User user = this.createUser();
+        long usedBytes = this.usedBytes(user);
+        byte[] content = randomContent(40);
+
+        UploadSession completed = this.createSession(user, "completed.bin", content.length);
+        UploadSession cancelled = this.createSession(user, "cancelled.bin", 100);
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + 140);
+
+        this.storageQuotaService.reconcile();
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + 140);
+
+        for (int offset = 0; offset < content.length; offset += 16)
+            this.writeChunk(completed, content, offset);
+        this.uploadSessionService.completeSession(completed);
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + 140);
+
+        this.uploadSessionService.cancelSession(cancelled);
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + 40);
+        assertThat(this.getPartFile(cancelled)).doesNotExist();
+    }
+
+    @Test
+    void rejectsSessionsOverTheQuota() {
+        User user = this.createUser();
+        long remaining = this.storageQuotaService.getQuota(user) - this.usedBytes(user);
+
+        UploadSession session = this.createSession(user, "large.bin", remaining - 10);
+
+        assertThatThrownBy(() -> this.createSession(user, "small.bin", 20))
+                .isInstanceOf(StorageQuotaExceededException.class);
+        this.uploadSessionService.cancelSession(session);
+        this.uploadSessionService.cancelSession(this.createSession(user, "small.bin", 20));
+    }
+
+    @Test
+    void limitsOpenSessionsPerUser() {
+        User user = this.createUser();
+        UploadSession first = this.createSession(user, "first.bin", 10);
+        this.createSession(user, "second.bin", 10);
+        long usedBytes = this.usedBytes(user);
+
+        assertThatThrownBy(() -> this.createSession(user, "third.bin", 10))
+                .isInstanceOf(StorageUploadLimitException.class);
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes);
+
+        this.uploadSessionService.cancelSession(first);
+        this.createSession(user, "third.bin", 10);
+    }
+
+    @Test
+    void purgesExpiredSessions() {
+        User user = this.createUser();
+        long usedBytes = this.usedBytes(user);
+        UploadSession expired = this.createSession(user, "expired.bin", 30);
+        UploadSession active = this.createSession(user, "active.bin", 20);
+        this.writeChunk(expired, randomContent(30), 0);
+        this.jdbcTemplate.update("update upload_session set expiry_date = ? where id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofMinutes(1))), expired.getId());
+
+        assertThatThrownBy(() -> this.uploadSessionService.loadSession(user.getId(), expired.getId()))
+                .isInstanceOf(StorageUploadNotFoundException.class);
+        this.uploadSessionService.purgeExpiredSessions();
+
+        assertThat(this.uploadSessionRepository.findById(expired.getId())).isEmpty();
+        assertThat(this.getPartFile(expired)).doesNotExist();
+        assertThat(this.uploadSessionRepository.findById(active.getId())).isPresent();
+        assertThat(this.getPartFile(active)).exists();
+        assertThat(this.usedBytes(user)).isEqualTo(usedBytes + 20);
+    }
+
+    private UploadSession createSession(User user, String name, long size) {
+        return this.uploadSessionService.createSession(user.getId(), Paths.get(user.getUsername()), name, size);
+    }
+
+    private void writeChunk(UploadSession session, byte[] content, int offset) {
+        byte[] chunk = Arrays.copyOfRange(content, offset, Math.min(offset + session.getChunkSize(), content.length));
+        this.uploadSessionService.writeChunk(session, (long) offset, new ByteArrayInputStream(chunk));
+    }
+
+    private Path getPartFile(UploadSession session) {
+        return Paths.get(this.storageProperties.getUploadLocation()).resolve(session.getId() + ".part");
+    }
+
+    private long usedBytes(User user) {
+        return this.userRepository.findById(user.getId()).orElseThrow().getUsedBytes();
+    }
+
+    private static byte[] randomContent(int size) {
+        byte[] content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+        return content;
+    }
+}
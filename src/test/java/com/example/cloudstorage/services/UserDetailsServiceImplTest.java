@@ -0,0 +1,65 @@
+package com.example.cloudstorage.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import com.example.cloudstorage.StorageTestSupport;
+import com.example.cloudstorage.models.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserDetailsServiceImplTest extends StorageTestSupport {
+    private static final AtomicInteger MISSING = new AtomicInteger();
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Test
+    void cachesPrincipalsBetweenRequests() {
+        User user = this.createUser();
+
+        UserDetails cached = this.userDetailsService.loadCachedUserByUsername(user.getUsername());
+
+        assertThat(this.userDetailsService.loadCachedUserByUsername(user.getUsername())).isSameAs(cached);
+    }
+
+    @Test
+    void loginRefreshesTheCachedPrincipal() {
+        User user = this.createUser();
+        UserDetails cached = this.userDetailsService.loadCachedUserByUsername(user.getUsername());
+
+        UserDetails loaded = this.userDetailsService.loadUserByUsername(user.getUsername());
+
+        assertThat(loaded).isNotSameAs(cached);
+        assertThat(this.userDetailsService.loadCachedUserByUsername(user.getUsername())).isSameAs(loaded);
+    }
+
+    @Test
+    void passwordChangeEvictsTheCachedPrincipal() {
+        User user = this.createUser();
+        UserDetails cached = this.userDetailsService.loadCachedUserByUsername(user.getUsername());
+
+        this.userDetailsService.updatePassword(cached, "{noop}changed");
+
+        UserDetails reloaded = this.userDetailsService.loadCachedUserByUsername(user.getUsername());
+        assertThat(reloaded).isNotSameAs(cached);
+        assertThat(reloaded.getPassword()).isEqualTo("{noop}changed");
+    }
+
+    @Test
+    void missingUsersAreNotCached() {
+        String username = "missing" + MISSING.incrementAndGet();
+
+        assertThatThrownBy(() -> this.userDetailsService.loadCachedUserByUsername(username))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        this.userRepository.save(new User(username, username + "@example.com", "password"));
+        assertThat(this.userDetailsService.loadCachedUserByUsername(username).getUsername()).isEqualTo(username);
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.cloudstorage.transfer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.cloudstorage.metrics.StorageMetrics;
+import com.example.cloudstorage.properties.StorageProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDownloadHandlerTest {
+    private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    @TempDir
+    private Path directory;
+
+    private Path file;
+    private FileDownloadHandler handler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.file = Files.writeString(this.directory.resolve("file.txt"), CONTENT);
+        this.handler = new FileDownloadHandler(new StorageProperties(), new StorageMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void fullDownload() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = this.download(new MockHttpServletRequest());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(CONTENT.length());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeaders().getETag()).isNotNull();
+        assertThat(body(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void singleRange() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = this.download(this.withRange("bytes=10-19"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-19/36");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+        assertThat(body(response)).isEqualTo("abcdefghij");
+    }
+
+    @Test
+    void suffixRange() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = this.download(this.withRange("bytes=-6"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 30-35/36");
+        assertThat(body(response)).isEqualTo("uvwxyz");
+    }
+
+    @Test
+    void openEndedRange() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = this.download(this.withRange("bytes=32-"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 32-35/36");
+        assertThat(body(response)).isEqualTo("wxyz");
+    }
+
+    @Test
+    void multipleRanges() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = this.download(this.withRange("bytes=0-2,10-12"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        MediaType contentType = response.getHeaders().getContentType();
+        assertThat(contentType).isNotNull();
+        assertThat(contentType.isCompatibleWith(MediaType.parseMediaType("multipart/byteranges"))).isTrue();
+
+        String boundary = contentType.getParameter("boundary");
+        assertThat(body(response)).isEqualTo("\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Range: bytes 0-2/36\r\n\r\n"
+                + "012"
+                + "\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/plain\r\n"
+                + "Content-Range: bytes 10-12/36\r\n\r\n"
+                + "abc"
+                + "\r\n--" + boundary + "--\r\n");
+    }
+
+    @Test
+    void unsatisfiableRange() {
+        ResponseEntity<StreamingResponseBody> response = this.download(this.withRange("bytes=100-200"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */36");
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void ifRangeWithCurrentETag() throws IOException {
+        MockHttpServletRequest request = this.withRange("bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, this.currentETag());
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(body(response)).isEqualTo("0123");
+    }
+
+    @Test
+    void ifRangeWithStaleETag() throws IOException {
+        MockHttpServletRequest request = this.withRange("bytes=0-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(body(response)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void notModifiedForMatchingETag() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, this.currentETag());
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getContentType()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(this.currentETag());
+        assertThat(response.getBody()).isNull();
+    }
+
+    @Test
+    void notModifiedSinceLastModified() throws IOException {
+        HttpHeaders conditions = new HttpHeaders();
+        conditions.setIfModifiedSince(Files.getLastModifiedTime(this.file).toMillis() + 1000);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, conditions.getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+
+        assertThat(this.download(request).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void modifiedForDifferentETag() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+
+        assertThat(this.download(request).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void streamsRegionsLargerThanTheCopyBuffer() throws IOException {
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++)
+            content[i] = (byte) i;
+        Files.write(this.file, content);
+
+        assertThat(bytes(this.download(new MockHttpServletRequest()))).isEqualTo(content);
+        assertThat(bytes(this.download(this.withRange("bytes=70000-169999"))))
+                .isEqualTo(Arrays.copyOfRange(content, 70_000, 170_000));
+    }
+
+    @Test
+    void sendfileAboveThreshold() throws IOException {
+        this.handler = this.sendfileHandler(DataSize.ofBytes(16));
+        MockHttpServletRequest request = this.withSendfile(new MockHttpServletRequest());
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(CONTENT.length());
+        assertThat(response.getBody()).isNull();
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTRIBUTE)).isEqualTo(this.file.toRealPath().toString());
+        assertThat(request.getAttribute(SENDFILE_START_ATTRIBUTE)).isEqualTo(0L);
+        assertThat(request.getAttribute(SENDFILE_END_ATTRIBUTE)).isEqualTo((long) CONTENT.length());
+    }
+
+    @Test
+    void sendfileForSingleRange() throws IOException {
+        this.handler = this.sendfileHandler(DataSize.ofBytes(16));
+        MockHttpServletRequest request = this.withSendfile(this.withRange("bytes=10-29"));
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-29/36");
+        assertThat(response.getBody()).isNull();
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTRIBUTE)).isEqualTo(this.file.toRealPath().toString());
+        assertThat(request.getAttribute(SENDFILE_START_ATTRIBUTE)).isEqualTo(10L);
+        assertThat(request.getAttribute(SENDFILE_END_ATTRIBUTE)).isEqualTo(30L);
+    }
+
+    @Test
+    void streamsBelowSendfileThreshold() throws IOException {
+        this.handler = this.sendfileHandler(DataSize.ofBytes(16));
+        MockHttpServletRequest request = this.withSendfile(this.withRange("bytes=0-9"));
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(body(response)).isEqualTo("0123456789");
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTRIBUTE)).isNull();
+        assertThat(request.getAttribute(SENDFILE_START_ATTRIBUTE)).isNull();
+        assertThat(request.getAttribute(SENDFILE_END_ATTRIBUTE)).isNull();
+    }
+
+    @Test
+    void streamsWithoutConnectorSupport() throws IOException {
+        this.handler = this.sendfileHandler(DataSize.ofBytes(16));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(body(response)).isEqualTo(CONTENT);
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTRIBUTE)).isNull();
+    }
+
+    @Test
+    void streamsWhenSendfileIsDisabled() throws IOException {
+        StorageProperties properties = new StorageProperties();
+        properties.setSendfileEnabled(false);
+        properties.setSendfileThreshold(DataSize.ofBytes(16));
+        this.handler = new FileDownloadHandler(properties, new StorageMetrics(new SimpleMeterRegistry()));
+        MockHttpServletRequest request = this.withSendfile(new MockHttpServletRequest());
+
+        ResponseEntity<StreamingResponseBody> response = this.download(request);
+
+        assertThat(body(response)).isEqualTo(CONTENT);
+        assertThat(request.getAttribute(SENDFILE_FILENAME_ATTRIBUTE)).isNull();
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(MockHttpServletRequest request) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        return this.handler.download(this.file, request, headers);
+    }
+
+    private MockHttpServletRequest withRange(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, range);
+        return request;
+    }
+
+    private MockHttpServletRequest withSendfile(MockHttpServletRequest request) {
+        request.setAttribute(SENDFILE_SUPPORTED_ATTRIBUTE, true);
+        return request;
+    }
+
+    private FileDownloadHandler sendfileHandler(DataSize threshold) {
+        StorageProperties properties = new StorageProperties();
+        properties.setSendfileThreshold(threshold);
+        return new FileDownloadHandler(properties, new StorageMetrics(new SimpleMeterRegistry()));
+    }
+
+    private String currentETag() {
+        return this.download(new MockHttpServletRequest()).getHeaders().getETag();
+    }
+
+    private static String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        return new String(bytes(response), StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] bytes(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        assertThat(response.getBody()).isNotNull();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+        return outputStream.toByteArray();
+    }
+}